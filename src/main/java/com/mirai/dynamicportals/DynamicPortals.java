@@ -3,13 +3,19 @@ package com.mirai.dynamicportals;
 import com.mirai.dynamicportals.advancement.ModTriggers;
 import com.mirai.dynamicportals.api.IPortalRequirementAPI;
 import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.client.ClientSessionHandler;
 import com.mirai.dynamicportals.client.ModKeyBindings;
 import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.ProgressJournal;
 import com.mirai.dynamicportals.datagen.DataGenerators;
 import com.mirai.dynamicportals.event.AdvancementEventHandler;
+import com.mirai.dynamicportals.event.DatapackEventHandler;
+import com.mirai.dynamicportals.event.ItemAcquisitionTracker;
 import com.mirai.dynamicportals.event.MobKillHandler;
 import com.mirai.dynamicportals.event.PlayerEventHandler;
 import com.mirai.dynamicportals.event.PortalEventHandler;
+import com.mirai.dynamicportals.event.ProgressJournalHandler;
+import com.mirai.dynamicportals.event.ProgressStoreHandler;
 import com.mirai.dynamicportals.network.ModPackets;
 import com.mirai.dynamicportals.util.ModConstants;
 import net.neoforged.bus.api.IEventBus;
@@ -43,7 +49,15 @@ public class DynamicPortals {
         NeoForge.EVENT_BUS.register(new PortalEventHandler());
         NeoForge.EVENT_BUS.register(new MobKillHandler());
         NeoForge.EVENT_BUS.register(new PlayerEventHandler());
+        NeoForge.EVENT_BUS.register(new ItemAcquisitionTracker());
         NeoForge.EVENT_BUS.register(new AdvancementEventHandler());
+        NeoForge.EVENT_BUS.register(new DatapackEventHandler());
+        // Registered before the journal so stored progress is loaded before replay
+        NeoForge.EVENT_BUS.register(new ProgressStoreHandler());
+        if (ProgressJournal.isEnabled()) {
+            LOGGER.info("Progress journal enabled");
+            NeoForge.EVENT_BUS.register(new ProgressJournalHandler());
+        }
 
         // Initialize API
         apiInstance = PortalRequirementRegistry.getInstance();
@@ -53,14 +67,12 @@ public class DynamicPortals {
 
     private void commonSetup(final FMLCommonSetupEvent event) {
         LOGGER.info("Common setup phase...");
-        event.enqueueWork(() -> {
-            // Initialize portal requirements
-            PortalRequirementRegistry.getInstance().registerVanillaRequirements();
-        });
+        // Portal requirements are loaded from datapacks, see PortalRequirementLoader
     }
 
     private void clientSetup(final FMLClientSetupEvent event) {
         LOGGER.info("Client setup phase...");
+        NeoForge.EVENT_BUS.register(new ClientSessionHandler());
         event.enqueueWork(() -> {
             ModKeyBindings.register();
         });
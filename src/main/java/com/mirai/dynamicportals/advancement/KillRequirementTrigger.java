@@ -1,32 +1,216 @@
 package com.mirai.dynamicportals.advancement;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.api.RequirementSlots;
 import com.mirai.dynamicportals.data.ModAttachments;
 import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.util.BitSets;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.advancements.CriterionTrigger;
 import net.minecraft.advancements.critereon.ContextAwarePredicate;
+import net.minecraft.advancements.critereon.EntityPredicate;
 import net.minecraft.advancements.critereon.SimpleCriterionTrigger;
+import net.minecraft.server.PlayerAdvancements;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
+import net.minecraft.world.level.storage.loot.LootContext;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Fires when a player's progress may have completed a requirement.
+ * <p>
+ * Besides the per-player listener sets of {@link SimpleCriterionTrigger}, listeners are indexed by what
+ * they depend on: criteria for a dimension by that dimension, criteria listing their own targets by the
+ * {@link RequirementSlots} slots of those targets. A kill or pickup then only re-checks the listeners that
+ * include what changed, each against bitmasks compiled when the listener was added.
+ */
 public class KillRequirementTrigger extends SimpleCriterionTrigger<KillRequirementTrigger.TriggerInstance> {
+    private final Map<PlayerAdvancements, ListenerIndex> listenerIndexes = new IdentityHashMap<>();
+    // Scratch space for trigger(), which only runs on the server thread
+    private final ReferenceLinkedOpenHashSet<CriterionTrigger.Listener<TriggerInstance>> matched = new ReferenceLinkedOpenHashSet<>();
+    private final List<CriterionTrigger.Listener<TriggerInstance>> toRun = new ArrayList<>();
+    // Set while matched listeners run; a reward granted by one may trigger again and must not reuse toRun
+    private boolean running;
+
+    /**
+     * A listener for a criterion that lists its own targets, with their slots compiled once
+     */
+    private record IndexedListener(CriterionTrigger.Listener<TriggerInstance> listener, long[] killMask, long[] itemMask) {
+        static IndexedListener of(CriterionTrigger.Listener<TriggerInstance> listener) {
+            TriggerInstance instance = listener.trigger();
+            long[] kills = BitSets.EMPTY;
+            for (EntityType<?> entityType : instance.requiredMobs()) {
+                kills = BitSets.set(kills, RequirementSlots.getOrCreateEntitySlot(entityType));
+            }
+            for (EntityType<?> entityType : instance.requiredBosses()) {
+                kills = BitSets.set(kills, RequirementSlots.getOrCreateEntitySlot(entityType));
+            }
+            long[] items = BitSets.EMPTY;
+            for (Item item : instance.requiredItems()) {
+                items = BitSets.set(items, RequirementSlots.getOrCreateItemSlot(item));
+            }
+            return new IndexedListener(listener, kills, items);
+        }
+
+        boolean matches(PlayerProgressData progressData) {
+            return progressData.hasAll(killMask) && progressData.hasAll(itemMask);
+        }
+    }
+
+    private static final class ListenerIndex {
+        final Map<ResourceLocation, List<CriterionTrigger.Listener<TriggerInstance>>> byDimension = new HashMap<>();
+        final Int2ObjectOpenHashMap<List<IndexedListener>> bySlot = new Int2ObjectOpenHashMap<>();
+        // Reverse of bySlot, so removing a listener only visits its own slots
+        final Map<CriterionTrigger.Listener<TriggerInstance>, IndexedListener> byListener = new HashMap<>();
+
+        boolean isEmpty() {
+            return byDimension.isEmpty() && bySlot.isEmpty();
+        }
+    }
 
     @Override
     public Codec<TriggerInstance> codec() {
         return TriggerInstance.CODEC;
     }
 
+    @Override
+    public void addPlayerListener(PlayerAdvancements playerAdvancements, CriterionTrigger.Listener<TriggerInstance> listener) {
+        super.addPlayerListener(playerAdvancements, listener);
+        ListenerIndex index = listenerIndexes.computeIfAbsent(playerAdvancements, key -> new ListenerIndex());
+        Optional<ResourceLocation> dimension = listener.trigger().dimension();
+        if (dimension.isPresent()) {
+            index.byDimension.computeIfAbsent(dimension.get(), key -> new ArrayList<>()).add(listener);
+            return;
+        }
+        IndexedListener indexed = IndexedListener.of(listener);
+        if (index.byListener.putIfAbsent(listener, indexed) != null) {
+            return;
+        }
+        long[] slots = BitSets.or(indexed.killMask(), indexed.itemMask());
+        for (int slot = BitSets.nextSetBit(slots, 0); slot >= 0; slot = BitSets.nextSetBit(slots, slot + 1)) {
+            index.bySlot.computeIfAbsent(slot, key -> new ArrayList<>()).add(indexed);
+        }
+    }
+
+    @Override
+    public void removePlayerListener(PlayerAdvancements playerAdvancements, CriterionTrigger.Listener<TriggerInstance> listener) {
+        super.removePlayerListener(playerAdvancements, listener);
+        ListenerIndex index = listenerIndexes.get(playerAdvancements);
+        if (index == null) {
+            return;
+        }
+        Optional<ResourceLocation> dimension = listener.trigger().dimension();
+        if (dimension.isPresent()) {
+            List<CriterionTrigger.Listener<TriggerInstance>> listeners = index.byDimension.get(dimension.get());
+            if (listeners != null && listeners.remove(listener) && listeners.isEmpty()) {
+                index.byDimension.remove(dimension.get());
+            }
+        } else {
+            IndexedListener indexed = index.byListener.remove(listener);
+            if (indexed != null) {
+                long[] slots = BitSets.or(indexed.killMask(), indexed.itemMask());
+                for (int slot = BitSets.nextSetBit(slots, 0); slot >= 0; slot = BitSets.nextSetBit(slots, slot + 1)) {
+                    List<IndexedListener> listeners = index.bySlot.get(slot);
+                    if (listeners != null && listeners.remove(indexed) && listeners.isEmpty()) {
+                        index.bySlot.remove(slot);
+                    }
+                }
+            }
+        }
+        if (index.isEmpty()) {
+            listenerIndexes.remove(playerAdvancements);
+        }
+    }
+
+    @Override
+    public void removePlayerListeners(PlayerAdvancements playerAdvancements) {
+        super.removePlayerListeners(playerAdvancements);
+        listenerIndexes.remove(playerAdvancements);
+    }
+
+    /**
+     * Re-checks every criterion of the player
+     */
     public void trigger(ServerPlayer player) {
         this.trigger(player, triggerInstance -> triggerInstance.matches(player));
     }
 
+    /**
+     * Re-checks only the criteria that depend on what changed
+     * @param requirements Bitset over the ordinals of the requirements that progressed
+     * @param slots Bitset over the {@link RequirementSlots} slots that progressed
+     */
+    public void trigger(ServerPlayer player, long[] requirements, long[] slots) {
+        ListenerIndex listeners = listenerIndexes.get(player.getAdvancements());
+        if (listeners == null) {
+            return;
+        }
+        PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+
+        for (int ordinal = BitSets.nextSetBit(requirements, 0); ordinal >= 0 && ordinal < index.size(); ordinal = BitSets.nextSetBit(requirements, ordinal + 1)) {
+            ResourceLocation dimension = index.requirement(ordinal).getDimension();
+            List<CriterionTrigger.Listener<TriggerInstance>> forDimension = listeners.byDimension.get(dimension);
+            if (forDimension != null && progressData.isRequirementComplete(dimension)) {
+                matched.addAll(forDimension);
+            }
+        }
+        for (int slot = BitSets.nextSetBit(slots, 0); slot >= 0; slot = BitSets.nextSetBit(slots, slot + 1)) {
+            List<IndexedListener> forSlot = listeners.bySlot.get(slot);
+            if (forSlot == null) {
+                continue;
+            }
+            for (IndexedListener indexed : forSlot) {
+                if (!matched.contains(indexed.listener()) && indexed.matches(progressData)) {
+                    matched.add(indexed.listener());
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            return;
+        }
+
+        // Granting a criterion removes its listener, so run them only after the walk
+        boolean nested = running;
+        List<CriterionTrigger.Listener<TriggerInstance>> run = nested ? new ArrayList<>(matched) : toRun;
+        if (!nested) {
+            run.addAll(matched);
+        }
+        matched.clear();
+        running = true;
+        try {
+            LootContext context = EntityPredicate.createContext(player, player);
+            PlayerAdvancements playerAdvancements = player.getAdvancements();
+            for (CriterionTrigger.Listener<TriggerInstance> listener : run) {
+                Optional<ContextAwarePredicate> predicate = listener.trigger().player();
+                if (predicate.isEmpty() || predicate.get().matches(context)) {
+                    listener.run(playerAdvancements);
+                }
+            }
+        } finally {
+            if (!nested) {
+                running = false;
+                toRun.clear();
+            }
+        }
+    }
+
     public record TriggerInstance(
             Optional<ContextAwarePredicate> player,
+            Optional<ResourceLocation> dimension,
             List<EntityType<?>> requiredMobs,
             List<EntityType<?>> requiredBosses,
             List<Item> requiredItems
@@ -35,15 +219,28 @@ public class KillRequirementTrigger extends SimpleCriterionTrigger<KillRequireme
         public static final Codec<TriggerInstance> CODEC = RecordCodecBuilder.create(instance ->
                 instance.group(
                         ContextAwarePredicate.CODEC.optionalFieldOf("player").forGetter(TriggerInstance::player),
-                        BuiltInRegistries.ENTITY_TYPE.byNameCodec().listOf().fieldOf("required_mobs").forGetter(TriggerInstance::requiredMobs),
+                        ResourceLocation.CODEC.optionalFieldOf("dimension").forGetter(TriggerInstance::dimension),
+                        BuiltInRegistries.ENTITY_TYPE.byNameCodec().listOf().optionalFieldOf("required_mobs", List.of()).forGetter(TriggerInstance::requiredMobs),
                         BuiltInRegistries.ENTITY_TYPE.byNameCodec().listOf().optionalFieldOf("required_bosses", List.of()).forGetter(TriggerInstance::requiredBosses),
                         BuiltInRegistries.ITEM.byNameCodec().listOf().optionalFieldOf("required_items", List.of()).forGetter(TriggerInstance::requiredItems)
                 ).apply(instance, TriggerInstance::new)
         );
 
+        /**
+         * Criterion that completes once the registered requirement for a dimension is met
+         */
+        public static TriggerInstance forDimension(ResourceLocation dimension) {
+            return new TriggerInstance(Optional.empty(), Optional.of(dimension), List.of(), List.of(), List.of());
+        }
+
         public boolean matches(ServerPlayer player) {
             PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
 
+            if (dimension.isPresent()) {
+                // One pass of the compiled program over the progress bitset
+                return progressData.isRequirementComplete(dimension.get());
+            }
+
             // Check all required mobs have been killed
             for (EntityType<?> mobType : requiredMobs) {
                 if (!progressData.hasMobBeenKilled(mobType)) {
@@ -58,21 +255,14 @@ public class KillRequirementTrigger extends SimpleCriterionTrigger<KillRequireme
                 }
             }
 
-            // Check all required items have been obtained (via inventory check)
+            // Check all required items have been obtained
             for (Item item : requiredItems) {
-                if (!hasObtainedItem(player, item)) {
+                if (!progressData.hasItemBeenObtained(item)) {
                     return false;
                 }
             }
 
             return true;
         }
-
-        private boolean hasObtainedItem(ServerPlayer player, Item item) {
-            PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
-            // Check both persistent tracking and current inventory
-            return progressData.hasItemBeenObtained(item) || 
-                   player.getInventory().hasAnyMatching(stack -> stack.is(item));
-        }
     }
 }
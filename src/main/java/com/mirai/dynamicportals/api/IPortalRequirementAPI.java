@@ -1,12 +1,14 @@
 package com.mirai.dynamicportals.api;
 
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
 
 public interface IPortalRequirementAPI {
     
     /**
      * Register a portal requirement for a specific dimension
      * @param requirement The portal requirement configuration
+     * @throws IllegalArgumentException if its prerequisites would form a cycle with the registered requirements
      */
     void registerPortalRequirement(PortalRequirement requirement);
 
@@ -24,6 +26,30 @@ public interface IPortalRequirementAPI {
      */
     boolean hasRequirement(ResourceLocation dimension);
 
+    /**
+     * Check if a player has met every target of a dimension's requirement
+     * @param player The player whose progress is checked
+     * @param dimension The dimension resource location
+     * @return true if nothing remains, false if incomplete or no requirement exists
+     */
+    boolean isRequirementComplete(Player player, ResourceLocation dimension);
+
+    /**
+     * Evaluate a dimension's compiled requirement, listed targets and condition, against a progress bitset
+     * @param dimension The dimension resource location
+     * @param progress Bitset over {@link RequirementSlots} slots
+     * @return true if the requirement holds, false if it does not or no requirement exists
+     */
+    boolean isSatisfied(ResourceLocation dimension, long[] progress);
+
+    /**
+     * Get how far a player is through a dimension's requirement
+     * @param player The player whose progress is checked
+     * @param dimension The dimension resource location
+     * @return Completed fraction from 0 to 1, or 0 if no requirement exists
+     */
+    float getRequirementProgress(Player player, ResourceLocation dimension);
+
     /**
      * Remove a portal requirement
      * @param dimension The dimension to remove requirements for
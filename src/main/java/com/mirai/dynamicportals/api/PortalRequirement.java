@@ -1,26 +1,76 @@
 package com.mirai.dynamicportals.api;
 
+import com.mojang.datafixers.util.Either;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.ExtraCodecs;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 public class PortalRequirement {
+    /**
+     * Datapack format, loaded from {@code data/<namespace>/dynamicportals/requirements/*.json}.
+     * Mobs and bosses are ids, or {@code {"id": ..., "count": n}} objects when more than one kill is needed.
+     * Mob tags work the same way with {@code #tag} ids and {@code "tag"} keys: any n kills of the tag's members
+     * complete the entry. An item tag entry is done once any item in the tag has been obtained.
+     * An optional {@code condition} adds a {@link RequirementExpression} that must hold as well.
+     * {@code requires} lists dimensions whose portals must be open before this one can be.
+     */
+    public static final Codec<PortalRequirement> CODEC = RecordCodecBuilder.create(instance ->
+            instance.group(
+                    ResourceLocation.CODEC.fieldOf("dimension").forGetter(PortalRequirement::getDimension),
+                    ResourceLocation.CODEC.optionalFieldOf("advancement").forGetter(requirement -> Optional.ofNullable(requirement.getRequiredAdvancement())),
+                    ResourceLocation.CODEC.listOf().optionalFieldOf("requires", List.of()).forGetter(PortalRequirement::getPrerequisites),
+                    KillTarget.CODEC.listOf().optionalFieldOf("mobs", List.of()).forGetter(requirement -> requirement.killTargets(requirement.getRequiredMobs())),
+                    KillTarget.CODEC.listOf().optionalFieldOf("bosses", List.of()).forGetter(requirement -> requirement.killTargets(requirement.getRequiredBosses())),
+                    BuiltInRegistries.ITEM.byNameCodec().listOf().optionalFieldOf("items", List.of()).forGetter(PortalRequirement::getRequiredItems),
+                    TagKillTarget.CODEC.listOf().optionalFieldOf("mob_tags", List.of()).forGetter(PortalRequirement::tagKillTargets),
+                    TagKey.hashedCodec(Registries.ITEM).listOf().optionalFieldOf("item_tags", List.of()).forGetter(PortalRequirement::getRequiredItemTags),
+                    RequirementExpression.CODEC.optionalFieldOf("condition").forGetter(requirement -> Optional.ofNullable(requirement.getCondition()))
+            ).apply(instance, PortalRequirement::fromCodec)
+    );
+
+    public static final StreamCodec<ByteBuf, PortalRequirement> STREAM_CODEC = ByteBufCodecs.fromCodec(CODEC);
+
     private final ResourceLocation dimension;
     private final ResourceLocation requiredAdvancement;
+    private final List<ResourceLocation> prerequisites;
     private final List<EntityType<?>> requiredMobs;
     private final List<EntityType<?>> requiredBosses;
     private final List<Item> requiredItems;
+    private final List<TagKey<EntityType<?>>> requiredMobTags;
+    private final List<TagKey<Item>> requiredItemTags;
+    private final Map<EntityType<?>, Integer> requiredKillCounts;
+    private final Map<TagKey<EntityType<?>>, Integer> requiredTagKillCounts;
+    private final RequirementExpression condition;
 
     private PortalRequirement(Builder builder) {
         this.dimension = builder.dimension;
         this.requiredAdvancement = builder.requiredAdvancement;
+        this.prerequisites = List.copyOf(builder.prerequisites);
         this.requiredMobs = Collections.unmodifiableList(builder.requiredMobs);
         this.requiredBosses = Collections.unmodifiableList(builder.requiredBosses);
         this.requiredItems = Collections.unmodifiableList(builder.requiredItems);
+        this.requiredMobTags = Collections.unmodifiableList(builder.requiredMobTags);
+        this.requiredItemTags = Collections.unmodifiableList(builder.requiredItemTags);
+        this.requiredKillCounts = Map.copyOf(builder.requiredKillCounts);
+        this.requiredTagKillCounts = Map.copyOf(builder.requiredTagKillCounts);
+        this.condition = builder.condition;
     }
 
     public ResourceLocation getDimension() {
@@ -31,6 +81,13 @@ public class PortalRequirement {
         return requiredAdvancement;
     }
 
+    /**
+     * @return Dimensions that must be accessible before this one is
+     */
+    public List<ResourceLocation> getPrerequisites() {
+        return prerequisites;
+    }
+
     public List<EntityType<?>> getRequiredMobs() {
         return requiredMobs;
     }
@@ -43,6 +100,93 @@ public class PortalRequirement {
         return requiredItems;
     }
 
+    /**
+     * @return Entity tags whose members' kills count toward a shared total
+     */
+    public List<TagKey<EntityType<?>>> getRequiredMobTags() {
+        return requiredMobTags;
+    }
+
+    /**
+     * @return Item tags of which any one item must be obtained
+     */
+    public List<TagKey<Item>> getRequiredItemTags() {
+        return requiredItemTags;
+    }
+
+    /**
+     * @return Condition that must hold on top of the listed targets, or null if there is none
+     */
+    public RequirementExpression getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return How many times a required mob or boss must be killed, 1 unless a count was given
+     */
+    public int getRequiredKillCount(EntityType<?> entityType) {
+        return requiredKillCounts.getOrDefault(entityType, 1);
+    }
+
+    /**
+     * @return How many kills of any members of a required mob tag are needed, 1 unless a count was given
+     */
+    public int getRequiredKillCount(TagKey<EntityType<?>> tag) {
+        return requiredTagKillCounts.getOrDefault(tag, 1);
+    }
+
+    private List<KillTarget> killTargets(List<EntityType<?>> entityTypes) {
+        return entityTypes.stream().map(entityType -> new KillTarget(entityType, getRequiredKillCount(entityType))).toList();
+    }
+
+    private List<TagKillTarget> tagKillTargets() {
+        return requiredMobTags.stream().map(tag -> new TagKillTarget(tag, getRequiredKillCount(tag))).toList();
+    }
+
+    private static PortalRequirement fromCodec(ResourceLocation dimension, Optional<ResourceLocation> advancement, List<ResourceLocation> prerequisites,
+                                               List<KillTarget> mobs, List<KillTarget> bosses, List<Item> items,
+                                               List<TagKillTarget> mobTags, List<TagKey<Item>> itemTags,
+                                               Optional<RequirementExpression> condition) {
+        Builder builder = builder(dimension);
+        advancement.ifPresent(builder::advancement);
+        prerequisites.forEach(builder::requires);
+        mobs.forEach(target -> builder.addMob(target.entityType(), target.count()));
+        bosses.forEach(target -> builder.addBoss(target.entityType(), target.count()));
+        items.forEach(builder::addItem);
+        mobTags.forEach(target -> builder.addMobTag(target.tag(), target.count()));
+        itemTags.forEach(builder::addItemTag);
+        condition.ifPresent(builder::condition);
+        return builder.build();
+    }
+
+    private record KillTarget(EntityType<?> entityType, int count) {
+        private static final Codec<KillTarget> FULL_CODEC = RecordCodecBuilder.create(instance ->
+                instance.group(
+                        BuiltInRegistries.ENTITY_TYPE.byNameCodec().fieldOf("id").forGetter(KillTarget::entityType),
+                        ExtraCodecs.POSITIVE_INT.optionalFieldOf("count", 1).forGetter(KillTarget::count)
+                ).apply(instance, KillTarget::new)
+        );
+
+        static final Codec<KillTarget> CODEC = Codec.either(BuiltInRegistries.ENTITY_TYPE.byNameCodec(), FULL_CODEC).xmap(
+                either -> either.map(entityType -> new KillTarget(entityType, 1), Function.identity()),
+                target -> target.count() == 1 ? Either.left(target.entityType()) : Either.right(target)
+        );
+    }
+
+    private record TagKillTarget(TagKey<EntityType<?>> tag, int count) {
+        private static final Codec<TagKillTarget> FULL_CODEC = RecordCodecBuilder.create(instance ->
+                instance.group(
+                        TagKey.hashedCodec(Registries.ENTITY_TYPE).fieldOf("tag").forGetter(TagKillTarget::tag),
+                        ExtraCodecs.POSITIVE_INT.optionalFieldOf("count", 1).forGetter(TagKillTarget::count)
+                ).apply(instance, TagKillTarget::new)
+        );
+
+        static final Codec<TagKillTarget> CODEC = Codec.either(TagKey.hashedCodec(Registries.ENTITY_TYPE), FULL_CODEC).xmap(
+                either -> either.map(tag -> new TagKillTarget(tag, 1), Function.identity()),
+                target -> target.count() == 1 ? Either.left(target.tag()) : Either.right(target)
+        );
+    }
+
     public static Builder builder(ResourceLocation dimension) {
         return new Builder(dimension);
     }
@@ -50,9 +194,15 @@ public class PortalRequirement {
     public static class Builder {
         private final ResourceLocation dimension;
         private ResourceLocation requiredAdvancement;
+        private final List<ResourceLocation> prerequisites = new ArrayList<>();
         private final List<EntityType<?>> requiredMobs = new ArrayList<>();
         private final List<EntityType<?>> requiredBosses = new ArrayList<>();
         private final List<Item> requiredItems = new ArrayList<>();
+        private final List<TagKey<EntityType<?>>> requiredMobTags = new ArrayList<>();
+        private final List<TagKey<Item>> requiredItemTags = new ArrayList<>();
+        private final Map<EntityType<?>, Integer> requiredKillCounts = new HashMap<>();
+        private final Map<TagKey<EntityType<?>>, Integer> requiredTagKillCounts = new HashMap<>();
+        private RequirementExpression condition;
 
         private Builder(ResourceLocation dimension) {
             this.dimension = dimension;
@@ -63,11 +213,26 @@ public class PortalRequirement {
             return this;
         }
 
+        /**
+         * Requires the portal to another dimension to be open first, e.g. the End after the Nether
+         */
+        public Builder requires(ResourceLocation dimension) {
+            if (!this.prerequisites.contains(dimension)) {
+                this.prerequisites.add(dimension);
+            }
+            return this;
+        }
+
         public Builder addMob(EntityType<?> mob) {
             this.requiredMobs.add(mob);
             return this;
         }
 
+        public Builder addMob(EntityType<?> mob, int count) {
+            this.requiredMobs.add(mob);
+            return killCount(mob, count);
+        }
+
         public Builder addMobs(EntityType<?>... mobs) {
             Collections.addAll(this.requiredMobs, mobs);
             return this;
@@ -78,6 +243,11 @@ public class PortalRequirement {
             return this;
         }
 
+        public Builder addBoss(EntityType<?> boss, int count) {
+            this.requiredBosses.add(boss);
+            return killCount(boss, count);
+        }
+
         public Builder addBosses(EntityType<?>... bosses) {
             Collections.addAll(this.requiredBosses, bosses);
             return this;
@@ -93,7 +263,58 @@ public class PortalRequirement {
             return this;
         }
 
+        /**
+         * Requires one kill of any entity in the tag.
+         */
+        public Builder addMobTag(TagKey<EntityType<?>> tag) {
+            this.requiredMobTags.add(tag);
+            return this;
+        }
+
+        /**
+         * Requires {@code count} kills in total across the entities in the tag, e.g. any 5 raiders.
+         */
+        public Builder addMobTag(TagKey<EntityType<?>> tag, int count) {
+            checkKillCount(count);
+            this.requiredMobTags.add(tag);
+            this.requiredTagKillCounts.put(tag, count);
+            return this;
+        }
+
+        /**
+         * Requires any one item in the tag.
+         */
+        public Builder addItemTag(TagKey<Item> tag) {
+            this.requiredItemTags.add(tag);
+            return this;
+        }
+
+        /**
+         * Adds a condition tree that must hold as well as every listed target,
+         * e.g. {@code any(kill(WITHER), kill(WARDEN))}.
+         */
+        public Builder condition(RequirementExpression condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        private Builder killCount(EntityType<?> entityType, int count) {
+            checkKillCount(count);
+            this.requiredKillCounts.put(entityType, count);
+            return this;
+        }
+
+        private static void checkKillCount(int count) {
+            if (count < 1) {
+                throw new IllegalArgumentException("Kill count must be at least 1, got " + count);
+            }
+        }
+
         public PortalRequirement build() {
+            // The root group of the compiled program takes one of the slots
+            if (condition != null && RequirementProgram.groupCount(condition) >= RequirementProgram.MAX_GROUPS) {
+                throw new IllegalArgumentException("Condition for " + dimension + " nests more than " + (RequirementProgram.MAX_GROUPS - 1) + " groups");
+            }
             return new PortalRequirement(this);
         }
     }
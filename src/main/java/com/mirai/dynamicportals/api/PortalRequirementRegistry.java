@@ -1,17 +1,48 @@
 package com.mirai.dynamicportals.api;
 
-import com.mirai.dynamicportals.util.ModConstants;
+import com.mirai.dynamicportals.data.ModAttachments;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.entity.EntityType;
-import net.minecraft.world.item.Items;
+import net.minecraft.world.entity.player.Player;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+/**
+ * Holds the portal requirements as a single immutable snapshot.
+ * <p>
+ * Reads are one volatile load and never allocate. Writers copy the snapshot, compile a new
+ * {@link RequirementIndex} and publish it with a compare-and-set, retrying if another thread
+ * got there first, so addons may register from any thread.
+ */
 public class PortalRequirementRegistry implements IPortalRequirementAPI {
     
     private static final PortalRequirementRegistry INSTANCE = new PortalRequirementRegistry();
-    private final Map<ResourceLocation, PortalRequirement> requirements = new HashMap<>();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * @param registered Requirements registered through the API
+     * @param datapack   Requirements loaded from datapacks, replacing registered ones for the same dimension
+     * @param index      Lookup tables compiled from both
+     */
+    private record Snapshot(Map<ResourceLocation, PortalRequirement> registered,
+                            Map<ResourceLocation, PortalRequirement> datapack,
+                            RequirementIndex index) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), RequirementIndex.EMPTY);
+
+        Snapshot with(Map<ResourceLocation, PortalRequirement> registered, Map<ResourceLocation, PortalRequirement> datapack, long contentHash) {
+            return new Snapshot(registered, datapack, compile(registered, datapack, contentHash, index.version() + 1));
+        }
+    }
+
+    /**
+     * Datapack requirements compiled off the server thread, ready to be swapped in.
+     * @param baseIndex The index they were compiled against; if it is no longer current, applying recompiles
+     */
+    public record DatapackRequirements(Map<ResourceLocation, PortalRequirement> requirements, long contentHash,
+                                       RequirementIndex index, RequirementIndex baseIndex) {
+    }
 
     private PortalRequirementRegistry() {
     }
@@ -22,77 +53,143 @@ public class PortalRequirementRegistry implements IPortalRequirementAPI {
 
     @Override
     public void registerPortalRequirement(PortalRequirement requirement) {
-        requirements.put(requirement.getDimension(), requirement);
+        update(current -> {
+            Map<ResourceLocation, PortalRequirement> registered = new HashMap<>(current.registered());
+            registered.put(requirement.getDimension(), requirement);
+            return current.with(Map.copyOf(registered), current.datapack(), current.index().contentHash());
+        });
     }
 
     @Override
     public PortalRequirement getRequirement(ResourceLocation dimension) {
-        return requirements.get(dimension);
+        return getIndex().requirement(dimension);
     }
 
     @Override
     public boolean hasRequirement(ResourceLocation dimension) {
-        return requirements.containsKey(dimension);
+        return getIndex().requirement(dimension) != null;
+    }
+
+    @Override
+    public boolean isRequirementComplete(Player player, ResourceLocation dimension) {
+        return player.getData(ModAttachments.PLAYER_PROGRESS).isRequirementComplete(dimension);
+    }
+
+    @Override
+    public boolean isSatisfied(ResourceLocation dimension, long[] progress) {
+        RequirementIndex index = getIndex();
+        int ordinal = index.ordinalOf(dimension);
+        return ordinal >= 0 && index.isSatisfied(ordinal, progress);
+    }
+
+    @Override
+    public float getRequirementProgress(Player player, ResourceLocation dimension) {
+        return player.getData(ModAttachments.PLAYER_PROGRESS).getRequirementProgress(dimension);
     }
 
     @Override
     public void removeRequirement(ResourceLocation dimension) {
-        requirements.remove(dimension);
+        update(current -> {
+            if (!current.registered().containsKey(dimension) && !current.datapack().containsKey(dimension)) {
+                return current;
+            }
+            // A datapack requirement stays gone until the next reload. The index no longer matches the files then,
+            // so its hash is dropped and the next reload swaps in a fresh index even if nothing changed on disk
+            long contentHash = current.datapack().containsKey(dimension) ? 0L : current.index().contentHash();
+            return current.with(without(current.registered(), dimension), without(current.datapack(), dimension), contentHash);
+        });
+    }
+
+    /**
+     * Compile loaded datapack requirements into a lookup index. Safe to call from a worker thread.
+     * @param requirements Datapack requirements keyed by dimension
+     * @param contentHash Hash of the files they were loaded from
+     * @return The compiled requirements, to pass to {@link #applyDatapackRequirements}
+     */
+    public DatapackRequirements compileDatapackRequirements(Map<ResourceLocation, PortalRequirement> requirements, long contentHash) {
+        Snapshot current = snapshot.get();
+        Map<ResourceLocation, PortalRequirement> datapack = Map.copyOf(requirements);
+        RequirementIndex index = compile(current.registered(), datapack, contentHash, current.index().version() + 1);
+        return new DatapackRequirements(datapack, contentHash, index, current.index());
+    }
+
+    /**
+     * Replace the datapack requirements in one step. Readers see either the old or the new index, never a mix.
+     * @param compiled Result of {@link #compileDatapackRequirements}
+     */
+    public void applyDatapackRequirements(DatapackRequirements compiled) {
+        update(current -> {
+            if (current.index() != compiled.baseIndex()) {
+                // The registry changed while compiling
+                return current.with(current.registered(), compiled.requirements(), compiled.contentHash());
+            }
+            if (compiled.contentHash() == current.index().contentHash()) {
+                // Same files as before: keep the current index so per-player counters stay valid
+                return current;
+            }
+            return new Snapshot(current.registered(), compiled.requirements(), compiled.index());
+        });
+    }
+
+    /**
+     * Recompile the index against freshly loaded tags. Tag membership is resolved once here, so tag
+     * entries cost a bit test on the kill and pickup paths. Does nothing when no requirement uses tags.
+     */
+    public void refreshTags() {
+        update(current -> {
+            boolean usesTags = current.index().requirementsByDimension().values().stream()
+                    .anyMatch(requirement -> !requirement.getRequiredMobTags().isEmpty() || !requirement.getRequiredItemTags().isEmpty());
+            return usesTags ? current.with(current.registered(), current.datapack(), current.index().contentHash()) : current;
+        });
     }
 
     /**
-     * Register vanilla dimension requirements (Nether and End)
-     * Called during mod initialization
+     * Get the lookup tables compiled from the current requirements
+     * @return The current index, never null
      */
-    public void registerVanillaRequirements() {
-        // Nether requirement
-        PortalRequirement netherRequirement = PortalRequirement.builder(ModConstants.NETHER_DIMENSION)
-                .advancement(ModConstants.NETHER_ACCESS_ADVANCEMENT)
-                .addMobs(
-                        EntityType.ZOMBIE,
-                        EntityType.SKELETON,
-                        EntityType.CREEPER,
-                        EntityType.SPIDER,
-                        EntityType.ENDERMAN,
-                        EntityType.WITCH,
-                        EntityType.SLIME,
-                        EntityType.DROWNED,
-                        EntityType.HUSK,
-                        EntityType.STRAY,
-                        EntityType.BREEZE,
-                        EntityType.BOGGED,
-                        EntityType.PILLAGER,
-                        EntityType.VINDICATOR,
-                        EntityType.EVOKER
-                )
-                .addBoss(EntityType.ELDER_GUARDIAN)
-                .addItem(Items.DIAMOND)
-                .build();
-
-        // End requirement
-        PortalRequirement endRequirement = PortalRequirement.builder(ModConstants.END_DIMENSION)
-                .advancement(ModConstants.END_ACCESS_ADVANCEMENT)
-                .addMobs(
-                        EntityType.GHAST,
-                        EntityType.BLAZE,
-                        EntityType.WITHER_SKELETON,
-                        EntityType.PIGLIN,
-                        EntityType.PIGLIN_BRUTE,
-                        EntityType.HOGLIN
-                )
-                .addBosses(EntityType.WARDEN, EntityType.WITHER)
-                .addItem(Items.NETHERITE_INGOT)
-                .build();
-
-        registerPortalRequirement(netherRequirement);
-        registerPortalRequirement(endRequirement);
+    public RequirementIndex getIndex() {
+        return snapshot.get().index();
     }
 
     /**
-     * Get all registered requirements
+     * Get the version of the current requirements, increasing with every change
+     * @return The version of {@link #getIndex()}
+     */
+    public int getVersion() {
+        return getIndex().version();
+    }
+
+    /**
+     * Get all registered requirements, from the API and from datapacks
      * @return Unmodifiable map of all requirements
      */
     public Map<ResourceLocation, PortalRequirement> getAllRequirements() {
-        return Map.copyOf(requirements);
+        return getIndex().requirementsByDimension();
+    }
+
+    private void update(UnaryOperator<Snapshot> mutation) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot next = mutation.apply(current);
+            if (next == current || snapshot.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static RequirementIndex compile(Map<ResourceLocation, PortalRequirement> registered,
+                                            Map<ResourceLocation, PortalRequirement> datapack, long contentHash, int version) {
+        Map<ResourceLocation, PortalRequirement> merged = new HashMap<>(registered);
+        merged.putAll(datapack);
+        return RequirementIndex.build(merged.values(), contentHash, version);
+    }
+
+    private static Map<ResourceLocation, PortalRequirement> without(Map<ResourceLocation, PortalRequirement> requirements, ResourceLocation dimension) {
+        if (!requirements.containsKey(dimension)) {
+            return requirements;
+        }
+        Map<ResourceLocation, PortalRequirement> remaining = new HashMap<>(requirements);
+        remaining.remove(dimension);
+        return Map.copyOf(remaining);
     }
 }
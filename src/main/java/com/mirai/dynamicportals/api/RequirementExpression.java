@@ -0,0 +1,206 @@
+package com.mirai.dynamicportals.api;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.ExtraCodecs;
+import net.minecraft.util.StringRepresentable;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Condition tree over requirement targets, e.g. "any 10 of these 15 mobs" or "the Wither or the Warden".
+ * <p>
+ * Leaves are single targets, groups combine their children with AND, OR or N-of-M. Trees are compiled
+ * into a {@link RequirementProgram} when the {@link RequirementIndex} is built and never walked at runtime.
+ * <p>
+ * Datapack format: {@code {"type": "any", "of": [...]}}, {@code {"type": "at_least", "count": 10, "of": [...]}},
+ * {@code {"type": "kill", "id": "minecraft:wither"}}, {@code {"type": "kill_tag", "tag": "#minecraft:raiders", "count": 5}},
+ * {@code {"type": "item", "id": ...}} and {@code {"type": "item_tag", "tag": ...}}.
+ */
+public sealed interface RequirementExpression {
+    Codec<RequirementExpression> CODEC = Codec.recursive("requirement expression", self ->
+            Type.CODEC.dispatch("type", RequirementExpression::type, type -> type.codec.apply(self)));
+
+    Type type();
+
+    static RequirementExpression all(RequirementExpression... of) {
+        return new All(List.of(of));
+    }
+
+    static RequirementExpression any(RequirementExpression... of) {
+        return new Any(List.of(of));
+    }
+
+    static RequirementExpression atLeast(int count, RequirementExpression... of) {
+        return new AtLeast(count, List.of(of));
+    }
+
+    static RequirementExpression kill(EntityType<?> entityType) {
+        return new Kill(entityType, 1);
+    }
+
+    static RequirementExpression kill(EntityType<?> entityType, int count) {
+        return new Kill(entityType, count);
+    }
+
+    static RequirementExpression killTag(TagKey<EntityType<?>> tag, int count) {
+        return new KillTag(tag, count);
+    }
+
+    static RequirementExpression item(Item item) {
+        return new Obtain(item);
+    }
+
+    static RequirementExpression itemTag(TagKey<Item> tag) {
+        return new ObtainTag(tag);
+    }
+
+    /**
+     * A group of sub-conditions
+     */
+    sealed interface Group extends RequirementExpression {
+        List<RequirementExpression> of();
+
+        /**
+         * @return How many children must hold, given the number of distinct children
+         */
+        int required(int children);
+    }
+
+    /**
+     * A single target; leaves are what progress bits are kept for
+     */
+    sealed interface Target extends RequirementExpression {
+    }
+
+    record All(List<RequirementExpression> of) implements Group {
+        @Override
+        public Type type() {
+            return Type.ALL;
+        }
+
+        @Override
+        public int required(int children) {
+            return children;
+        }
+    }
+
+    record Any(List<RequirementExpression> of) implements Group {
+        @Override
+        public Type type() {
+            return Type.ANY;
+        }
+
+        @Override
+        public int required(int children) {
+            return Math.min(1, children);
+        }
+    }
+
+    record AtLeast(int count, List<RequirementExpression> of) implements Group {
+        public AtLeast {
+            if (count < 1) {
+                throw new IllegalArgumentException("Count must be at least 1, got " + count);
+            }
+        }
+
+        @Override
+        public Type type() {
+            return Type.AT_LEAST;
+        }
+
+        @Override
+        public int required(int children) {
+            return count;
+        }
+    }
+
+    record Kill(EntityType<?> entityType, int count) implements Target {
+        public Kill {
+            if (count < 1) {
+                throw new IllegalArgumentException("Kill count must be at least 1, got " + count);
+            }
+        }
+
+        @Override
+        public Type type() {
+            return Type.KILL;
+        }
+    }
+
+    record KillTag(TagKey<EntityType<?>> tag, int count) implements Target {
+        public KillTag {
+            if (count < 1) {
+                throw new IllegalArgumentException("Kill count must be at least 1, got " + count);
+            }
+        }
+
+        @Override
+        public Type type() {
+            return Type.KILL_TAG;
+        }
+    }
+
+    record Obtain(Item item) implements Target {
+        @Override
+        public Type type() {
+            return Type.ITEM;
+        }
+    }
+
+    record ObtainTag(TagKey<Item> tag) implements Target {
+        @Override
+        public Type type() {
+            return Type.ITEM_TAG;
+        }
+    }
+
+    enum Type implements StringRepresentable {
+        ALL("all", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                self.listOf().fieldOf("of").forGetter(All::of)
+        ).apply(instance, All::new))),
+        ANY("any", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                self.listOf().fieldOf("of").forGetter(Any::of)
+        ).apply(instance, Any::new))),
+        AT_LEAST("at_least", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                ExtraCodecs.POSITIVE_INT.fieldOf("count").forGetter(AtLeast::count),
+                self.listOf().fieldOf("of").forGetter(AtLeast::of)
+        ).apply(instance, AtLeast::new))),
+        KILL("kill", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                BuiltInRegistries.ENTITY_TYPE.byNameCodec().fieldOf("id").forGetter(Kill::entityType),
+                ExtraCodecs.POSITIVE_INT.optionalFieldOf("count", 1).forGetter(Kill::count)
+        ).apply(instance, Kill::new))),
+        KILL_TAG("kill_tag", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                TagKey.hashedCodec(Registries.ENTITY_TYPE).fieldOf("tag").forGetter(KillTag::tag),
+                ExtraCodecs.POSITIVE_INT.optionalFieldOf("count", 1).forGetter(KillTag::count)
+        ).apply(instance, KillTag::new))),
+        ITEM("item", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                BuiltInRegistries.ITEM.byNameCodec().fieldOf("id").forGetter(Obtain::item)
+        ).apply(instance, Obtain::new))),
+        ITEM_TAG("item_tag", self -> RecordCodecBuilder.mapCodec(instance -> instance.group(
+                TagKey.hashedCodec(Registries.ITEM).fieldOf("tag").forGetter(ObtainTag::tag)
+        ).apply(instance, ObtainTag::new)));
+
+        public static final Codec<Type> CODEC = StringRepresentable.fromEnum(Type::values);
+
+        private final String name;
+        private final Function<Codec<RequirementExpression>, MapCodec<? extends RequirementExpression>> codec;
+
+        Type(String name, Function<Codec<RequirementExpression>, MapCodec<? extends RequirementExpression>> codec) {
+            this.name = name;
+            this.codec = codec;
+        }
+
+        @Override
+        public String getSerializedName() {
+            return name;
+        }
+    }
+}
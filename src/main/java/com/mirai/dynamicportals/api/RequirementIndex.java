@@ -0,0 +1,668 @@
+package com.mirai.dynamicportals.api;
+
+import com.mirai.dynamicportals.util.BitSets;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable lookup tables compiled from the registered portal requirements.
+ * Rebuilt by {@link PortalRequirementRegistry} whenever a requirement is added or removed, and whenever
+ * tags are reloaded, since tag membership is resolved into the index at build time.
+ * <p>
+ * Each requirement gets an ordinal in this index. Ordinals follow a topological order of the prerequisite
+ * graph, so every requirement comes after the dimensions it requires. Progress counters keyed by ordinal are only
+ * valid for the index instance they were built against.
+ */
+public final class RequirementIndex {
+    private static final int[] NO_REQUIREMENTS = new int[0];
+    private static final int[] NO_SLOTS = new int[0];
+    static final RequirementIndex EMPTY = build(List.of(), 0L, 0);
+
+    // Registry version this index was built for, increasing with every change
+    private final int version;
+    // Hash of the datapack files the requirements were loaded from, 0 when none
+    private final long contentHash;
+    // Reverse indexes by registry numeric id: the slot of every mob, boss or item a requirement references, -1 otherwise
+    private final int[] slotByEntityId;
+    private final int[] slotByItemId;
+    // Per registry numeric id: slots of the required tags the entity type or item belongs to
+    private final int[][] tagSlotsByEntityId;
+    private final int[][] tagSlotsByItemId;
+    // Bitsets over registry numeric ids: anything that counts toward some requirement, directly or through a tag
+    private final long[] relevantEntityIds;
+    private final long[] relevantItemIds;
+    // Per registry numeric id: ordinals of the requirements it counts toward, directly or through a tag
+    private final int[][] requirementsByEntityId;
+    private final int[][] requirementsByItemId;
+
+    private final List<PortalRequirement> requirements;
+    private final Map<ResourceLocation, PortalRequirement> byDimension;
+    private final Map<ResourceLocation, Integer> ordinalByDimension;
+    // Same lookup by level key; keys are interned, so identity hashing is enough
+    private final Reference2IntOpenHashMap<ResourceKey<Level>> ordinalByLevel;
+    private final Map<ResourceLocation, Integer> ordinalByAdvancement;
+    // Per requirement: slot bitsets of its distinct kill targets and item targets
+    private final long[][] killMasks;
+    private final long[][] itemMasks;
+    // Per requirement: bitset over the ordinals of every direct or transitive prerequisite
+    private final long[][] ancestorMasks;
+    // Per requirement: listed targets and condition compiled together
+    private final RequirementProgram[] programs;
+    // Per requirement: every slot it lists or its condition reads, cleared when a death reset hits a locked tier
+    private final long[][] resetMasks;
+    private final int[] killTargetCounts;
+    private final int[] itemTargetCounts;
+    // Per slot: ordinals of the requirements that list it or read it in their condition
+    private final int[][] requirementsBySlot;
+    // Per slot: kills needed before the target counts as done, the highest any requirement asks for
+    private final int[] killThresholdBySlot;
+    // Per requirement: kill slots it asks fewer kills of than the slot threshold, and its own count for each
+    private final int[][] lowerThresholdSlots;
+    private final int[][] lowerThresholds;
+    // Read-only views of the two above, and the bitset words their slots span
+    private final IntList[] lowerThresholdSlotViews;
+    private final IntList[] lowerThresholdViews;
+    private final int[] lowerThresholdWords;
+    // Slots some requirement asks fewer kills of than another does
+    private final long[] splitThresholdSlots;
+
+    private RequirementIndex(int version, long contentHash, int[] slotByEntityId, int[] slotByItemId,
+                             int[][] tagSlotsByEntityId, int[][] tagSlotsByItemId, List<PortalRequirement> requirements,
+                             long[][] ancestorMasks, long[][] killMasks, long[][] itemMasks, RequirementProgram[] programs,
+                             int[][] requirementsBySlot, int[] killThresholdBySlot, int[][] lowerThresholdSlots,
+                             int[][] lowerThresholds, long[] splitThresholdSlots) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.slotByEntityId = slotByEntityId;
+        this.slotByItemId = slotByItemId;
+        this.tagSlotsByEntityId = tagSlotsByEntityId;
+        this.tagSlotsByItemId = tagSlotsByItemId;
+        this.requirements = requirements;
+        this.ancestorMasks = ancestorMasks;
+        this.killMasks = killMasks;
+        this.itemMasks = itemMasks;
+        this.programs = programs;
+        this.requirementsBySlot = requirementsBySlot;
+        this.killThresholdBySlot = killThresholdBySlot;
+        this.lowerThresholdSlots = lowerThresholdSlots;
+        this.lowerThresholds = lowerThresholds;
+        this.splitThresholdSlots = splitThresholdSlots;
+        this.lowerThresholdSlotViews = new IntList[requirements.size()];
+        this.lowerThresholdViews = new IntList[requirements.size()];
+        this.lowerThresholdWords = new int[requirements.size()];
+        for (int ordinal = 0; ordinal < requirements.size(); ordinal++) {
+            lowerThresholdSlotViews[ordinal] = IntLists.unmodifiable(IntArrayList.wrap(lowerThresholdSlots[ordinal]));
+            lowerThresholdViews[ordinal] = IntLists.unmodifiable(IntArrayList.wrap(lowerThresholds[ordinal]));
+            for (int slot : lowerThresholdSlots[ordinal]) {
+                lowerThresholdWords[ordinal] = Math.max(lowerThresholdWords[ordinal], (slot >>> 6) + 1);
+            }
+        }
+
+        this.ordinalByDimension = new HashMap<>();
+        this.ordinalByLevel = new Reference2IntOpenHashMap<>();
+        this.ordinalByLevel.defaultReturnValue(-1);
+        this.ordinalByAdvancement = new HashMap<>();
+        Map<ResourceLocation, PortalRequirement> requirementsByDimension = new LinkedHashMap<>();
+        this.killTargetCounts = new int[requirements.size()];
+        this.itemTargetCounts = new int[requirements.size()];
+        this.resetMasks = new long[requirements.size()][];
+        for (int ordinal = 0; ordinal < requirements.size(); ordinal++) {
+            resetMasks[ordinal] = programs[ordinal].slots();
+            ordinalByDimension.put(requirements.get(ordinal).getDimension(), ordinal);
+            ordinalByLevel.put(ResourceKey.create(Registries.DIMENSION, requirements.get(ordinal).getDimension()), ordinal);
+            if (requirements.get(ordinal).getRequiredAdvancement() != null) {
+                ordinalByAdvancement.put(requirements.get(ordinal).getRequiredAdvancement(), ordinal);
+            }
+            requirementsByDimension.put(requirements.get(ordinal).getDimension(), requirements.get(ordinal));
+            killTargetCounts[ordinal] = BitSets.cardinality(killMasks[ordinal]);
+            itemTargetCounts[ordinal] = BitSets.cardinality(itemMasks[ordinal]);
+        }
+        this.byDimension = Collections.unmodifiableMap(requirementsByDimension);
+
+        this.requirementsByEntityId = requirementsById(slotByEntityId, tagSlotsByEntityId);
+        this.requirementsByItemId = requirementsById(slotByItemId, tagSlotsByItemId);
+        this.relevantEntityIds = relevantIds(requirementsByEntityId);
+        this.relevantItemIds = relevantIds(requirementsByItemId);
+    }
+
+    static RequirementIndex build(Collection<PortalRequirement> registered, long contentHash, int version) {
+        List<PortalRequirement> requirements = topologicalOrder(registered);
+        long[][] ancestorMasks = ancestorMasks(requirements);
+        Tables tables = new Tables();
+        long[][] killMasks = new long[requirements.size()][];
+        long[][] itemMasks = new long[requirements.size()][];
+        RequirementProgram[] programs = new RequirementProgram[requirements.size()];
+        List<int[]> bySlot = new ArrayList<>();
+        List<Int2IntMap> thresholdsByOrdinal = new ArrayList<>();
+
+        for (int ordinal = 0; ordinal < requirements.size(); ordinal++) {
+            PortalRequirement requirement = requirements.get(ordinal);
+            thresholdsByOrdinal.add(tables.startRequirement());
+            long[] kills = BitSets.EMPTY;
+            long[] items = BitSets.EMPTY;
+
+            List<EntityType<?>> killTargets = new ArrayList<>(requirement.getRequiredMobs());
+            killTargets.addAll(requirement.getRequiredBosses());
+            for (EntityType<?> entityType : killTargets) {
+                kills = BitSets.set(kills, tables.killSlot(entityType, requirement.getRequiredKillCount(entityType)));
+            }
+            for (TagKey<EntityType<?>> tag : requirement.getRequiredMobTags()) {
+                kills = BitSets.set(kills, tables.killTagSlot(tag, requirement.getRequiredKillCount(tag)));
+            }
+            for (Item item : requirement.getRequiredItems()) {
+                items = BitSets.set(items, tables.itemSlot(item));
+            }
+            for (TagKey<Item> tag : requirement.getRequiredItemTags()) {
+                items = BitSets.set(items, tables.itemTagSlot(tag));
+            }
+
+            killMasks[ordinal] = kills;
+            itemMasks[ordinal] = items;
+            programs[ordinal] = RequirementProgram.compile(BitSets.or(kills, items), requirement.getCondition(), tables::slot);
+            // Condition targets are tracked like listed ones, but only listed targets feed the remaining counters
+            addToSlots(bySlot, programs[ordinal].slots(), ordinal);
+        }
+
+        // Only thresholds below the slot's own need keeping, every other requirement shares the progress bit
+        int[][] lowerSlots = new int[requirements.size()][];
+        int[][] lowerCounts = new int[requirements.size()][];
+        long[] split = BitSets.EMPTY;
+        for (int ordinal = 0; ordinal < requirements.size(); ordinal++) {
+            IntArrayList slots = new IntArrayList();
+            IntArrayList counts = new IntArrayList();
+            for (Int2IntMap.Entry entry : thresholdsByOrdinal.get(ordinal).int2IntEntrySet()) {
+                int count = Math.max(1, entry.getIntValue());
+                if (count < Math.max(1, tables.thresholds[entry.getIntKey()])) {
+                    slots.add(entry.getIntKey());
+                    counts.add(count);
+                    split = BitSets.set(split, entry.getIntKey());
+                }
+            }
+            lowerSlots[ordinal] = slots.isEmpty() ? NO_SLOTS : slots.toIntArray();
+            lowerCounts[ordinal] = counts.isEmpty() ? NO_SLOTS : counts.toIntArray();
+        }
+
+        return new RequirementIndex(version, contentHash, tables.slotByEntityId, tables.slotByItemId, tables.tagSlotsByEntityId,
+                tables.tagSlotsByItemId, requirements, ancestorMasks, killMasks, itemMasks, programs, bySlot.toArray(new int[0][]),
+                tables.thresholds, lowerSlots, lowerCounts, split);
+    }
+
+    /**
+     * Orders requirements so prerequisites come first, breaking ties by dimension id so every side,
+     * and every rebuild, assigns the same ordinals. A prerequisite dimension without a requirement of
+     * its own is always open and adds no edge.
+     * @throws IllegalArgumentException if the prerequisites form a cycle
+     */
+    private static List<PortalRequirement> topologicalOrder(Collection<PortalRequirement> registered) {
+        Map<ResourceLocation, PortalRequirement> byDimension = new HashMap<>();
+        registered.forEach(requirement -> byDimension.put(requirement.getDimension(), requirement));
+
+        Map<ResourceLocation, Integer> inDegree = new HashMap<>();
+        Map<ResourceLocation, List<ResourceLocation>> dependents = new HashMap<>();
+        for (PortalRequirement requirement : byDimension.values()) {
+            int degree = 0;
+            for (ResourceLocation prerequisite : requirement.getPrerequisites()) {
+                if (byDimension.containsKey(prerequisite)) {
+                    dependents.computeIfAbsent(prerequisite, key -> new ArrayList<>()).add(requirement.getDimension());
+                    degree++;
+                }
+            }
+            inDegree.put(requirement.getDimension(), degree);
+        }
+
+        PriorityQueue<ResourceLocation> ready = new PriorityQueue<>(Comparator.comparing(ResourceLocation::toString));
+        inDegree.forEach((dimension, degree) -> {
+            if (degree == 0) {
+                ready.add(dimension);
+            }
+        });
+        List<PortalRequirement> ordered = new ArrayList<>(byDimension.size());
+        while (!ready.isEmpty()) {
+            ResourceLocation dimension = ready.poll();
+            ordered.add(byDimension.get(dimension));
+            for (ResourceLocation dependent : dependents.getOrDefault(dimension, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (ordered.size() < byDimension.size()) {
+            List<ResourceLocation> cycle = inDegree.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .sorted(Comparator.comparing(ResourceLocation::toString))
+                    .toList();
+            throw new IllegalArgumentException("Portal requirement prerequisites form a cycle through " + cycle);
+        }
+        return ordered;
+    }
+
+    private static long[][] ancestorMasks(List<PortalRequirement> requirements) {
+        Map<ResourceLocation, Integer> ordinals = new HashMap<>();
+        long[][] ancestors = new long[requirements.size()][];
+        for (int ordinal = 0; ordinal < requirements.size(); ordinal++) {
+            long[] mask = BitSets.EMPTY;
+            // Prerequisites have lower ordinals, their closures are already complete
+            for (ResourceLocation prerequisite : requirements.get(ordinal).getPrerequisites()) {
+                Integer parent = ordinals.get(prerequisite);
+                if (parent != null) {
+                    mask = BitSets.or(BitSets.set(mask.clone(), parent), ancestors[parent]);
+                }
+            }
+            ancestors[ordinal] = mask;
+            ordinals.put(requirements.get(ordinal).getDimension(), ordinal);
+        }
+        return ancestors;
+    }
+
+    /**
+     * Reverse lookups and kill thresholds, grown as targets are registered during a build
+     */
+    private static final class Tables {
+        int[] slotByEntityId = new int[0];
+        int[] slotByItemId = new int[0];
+        int[][] tagSlotsByEntityId = new int[0][];
+        int[][] tagSlotsByItemId = new int[0][];
+        int[] thresholds = new int[0];
+        // Kills asked of each slot by the requirement being compiled
+        Int2IntOpenHashMap requirementThresholds = new Int2IntOpenHashMap();
+
+        Int2IntMap startRequirement() {
+            requirementThresholds = new Int2IntOpenHashMap();
+            return requirementThresholds;
+        }
+
+        int slot(RequirementExpression.Target target) {
+            return switch (target) {
+                case RequirementExpression.Kill kill -> killSlot(kill.entityType(), kill.count());
+                case RequirementExpression.KillTag killTag -> killTagSlot(killTag.tag(), killTag.count());
+                case RequirementExpression.Obtain obtain -> itemSlot(obtain.item());
+                case RequirementExpression.ObtainTag obtainTag -> itemTagSlot(obtainTag.tag());
+            };
+        }
+
+        int killSlot(EntityType<?> entityType, int count) {
+            int slot = RequirementSlots.getOrCreateEntitySlot(entityType);
+            slotByEntityId = assign(slotByEntityId, BuiltInRegistries.ENTITY_TYPE.getId(entityType), slot);
+            raiseThreshold(slot, count);
+            return slot;
+        }
+
+        int killTagSlot(TagKey<EntityType<?>> tag, int count) {
+            int slot = RequirementSlots.getOrCreateTagSlot(tag);
+            for (Holder<EntityType<?>> member : BuiltInRegistries.ENTITY_TYPE.getTagOrEmpty(tag)) {
+                tagSlotsByEntityId = addTagSlot(tagSlotsByEntityId, BuiltInRegistries.ENTITY_TYPE.getId(member.value()), slot);
+            }
+            raiseThreshold(slot, count);
+            return slot;
+        }
+
+        int itemSlot(Item item) {
+            int slot = RequirementSlots.getOrCreateItemSlot(item);
+            slotByItemId = assign(slotByItemId, BuiltInRegistries.ITEM.getId(item), slot);
+            return slot;
+        }
+
+        int itemTagSlot(TagKey<Item> tag) {
+            int slot = RequirementSlots.getOrCreateTagSlot(tag);
+            for (Holder<Item> member : BuiltInRegistries.ITEM.getTagOrEmpty(tag)) {
+                tagSlotsByItemId = addTagSlot(tagSlotsByItemId, BuiltInRegistries.ITEM.getId(member.value()), slot);
+            }
+            return slot;
+        }
+
+        private void raiseThreshold(int slot, int count) {
+            if (slot >= thresholds.length) {
+                thresholds = Arrays.copyOf(thresholds, slot + 1);
+            }
+            thresholds[slot] = Math.max(thresholds[slot], count);
+            requirementThresholds.mergeInt(slot, count, Math::max);
+        }
+    }
+
+    private static int[][] addTagSlot(int[][] tagSlotsById, int id, int slot) {
+        if (id < 0) {
+            return tagSlotsById;
+        }
+        if (id >= tagSlotsById.length) {
+            int oldLength = tagSlotsById.length;
+            tagSlotsById = Arrays.copyOf(tagSlotsById, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(tagSlotsById, oldLength, tagSlotsById.length, NO_SLOTS);
+        }
+        int[] slots = tagSlotsById[id];
+        for (int existing : slots) {
+            if (existing == slot) {
+                return tagSlotsById;
+            }
+        }
+        int[] updated = Arrays.copyOf(slots, slots.length + 1);
+        updated[slots.length] = slot;
+        tagSlotsById[id] = updated;
+        return tagSlotsById;
+    }
+
+    private int[][] requirementsById(int[] slotById, int[][] tagSlotsById) {
+        int[][] byId = new int[Math.max(slotById.length, tagSlotsById.length)][];
+        for (int id = 0; id < byId.length; id++) {
+            long[] ordinals = BitSets.EMPTY;
+            for (int ordinal : requirementsForSlot(lookup(slotById, id))) {
+                ordinals = BitSets.set(ordinals, ordinal);
+            }
+            for (int slot : id < tagSlotsById.length ? tagSlotsById[id] : NO_SLOTS) {
+                for (int ordinal : requirementsForSlot(slot)) {
+                    ordinals = BitSets.set(ordinals, ordinal);
+                }
+            }
+            byId[id] = toOrdinals(ordinals);
+        }
+        return byId;
+    }
+
+    private static int[] toOrdinals(long[] bits) {
+        int count = BitSets.cardinality(bits);
+        if (count == 0) {
+            return NO_REQUIREMENTS;
+        }
+        int[] ordinals = new int[count];
+        int i = 0;
+        for (int bit = BitSets.nextSetBit(bits, 0); bit >= 0; bit = BitSets.nextSetBit(bits, bit + 1)) {
+            ordinals[i++] = bit;
+        }
+        return ordinals;
+    }
+
+    private static long[] relevantIds(int[][] requirementsById) {
+        long[] relevant = BitSets.EMPTY;
+        for (int id = 0; id < requirementsById.length; id++) {
+            if (requirementsById[id].length > 0) {
+                relevant = BitSets.set(relevant, id);
+            }
+        }
+        return relevant;
+    }
+
+    private static int[] assign(int[] slotById, int id, int slot) {
+        if (id < 0) {
+            return slotById;
+        }
+        if (id >= slotById.length) {
+            int oldLength = slotById.length;
+            slotById = Arrays.copyOf(slotById, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(slotById, oldLength, slotById.length, -1);
+        }
+        slotById[id] = slot;
+        return slotById;
+    }
+
+    private static void addToSlots(List<int[]> bySlot, long[] mask, int ordinal) {
+        for (int slot = BitSets.nextSetBit(mask, 0); slot >= 0; slot = BitSets.nextSetBit(mask, slot + 1)) {
+            while (bySlot.size() <= slot) {
+                bySlot.add(NO_REQUIREMENTS);
+            }
+            int[] ordinals = bySlot.get(slot);
+            int[] updated = Arrays.copyOf(ordinals, ordinals.length + 1);
+            updated[ordinals.length] = ordinal;
+            bySlot.set(slot, updated);
+        }
+    }
+
+    /**
+     * @return true if killing this entity type can count toward any requirement, directly or through a tag
+     */
+    public boolean isRelevant(EntityType<?> entityType) {
+        return BitSets.get(relevantEntityIds, BuiltInRegistries.ENTITY_TYPE.getId(entityType));
+    }
+
+    /**
+     * @return true if obtaining this item can count toward any requirement, directly or through a tag
+     */
+    public boolean isRelevant(Item item) {
+        return BitSets.get(relevantItemIds, BuiltInRegistries.ITEM.getId(item));
+    }
+
+    /**
+     * @return the slot of an entity type some requirement asks to kill, or -1 if none does
+     */
+    public int entitySlot(EntityType<?> entityType) {
+        return lookup(slotByEntityId, BuiltInRegistries.ENTITY_TYPE.getId(entityType));
+    }
+
+    /**
+     * @return the slot of an item some requirement asks for, or -1 if none does
+     */
+    public int itemSlot(Item item) {
+        return lookup(slotByItemId, BuiltInRegistries.ITEM.getId(item));
+    }
+
+    /**
+     * @return slots of the required mob tags this entity type belongs to, as of the last tag reload
+     */
+    public int[] entityTagSlots(EntityType<?> entityType) {
+        return lookup(tagSlotsByEntityId, BuiltInRegistries.ENTITY_TYPE.getId(entityType), NO_SLOTS);
+    }
+
+    /**
+     * @return slots of the required item tags this item belongs to, as of the last tag reload
+     */
+    public int[] itemTagSlots(Item item) {
+        return lookup(tagSlotsByItemId, BuiltInRegistries.ITEM.getId(item), NO_SLOTS);
+    }
+
+    /**
+     * @return ordinals of the requirements that killing this entity type counts toward
+     */
+    public int[] requirementsFor(EntityType<?> entityType) {
+        return lookup(requirementsByEntityId, BuiltInRegistries.ENTITY_TYPE.getId(entityType), NO_REQUIREMENTS);
+    }
+
+    /**
+     * @return ordinals of the requirements that obtaining this item counts toward
+     */
+    public int[] requirementsFor(Item item) {
+        return lookup(requirementsByItemId, BuiltInRegistries.ITEM.getId(item), NO_REQUIREMENTS);
+    }
+
+    private static int lookup(int[] slotById, int id) {
+        return id >= 0 && id < slotById.length ? slotById[id] : -1;
+    }
+
+    private static int[] lookup(int[][] byId, int id, int[] fallback) {
+        return id >= 0 && id < byId.length ? byId[id] : fallback;
+    }
+
+    /**
+     * @return the registry version this index belongs to; a different version means the requirements changed
+     */
+    public int version() {
+        return version;
+    }
+
+    public long contentHash() {
+        return contentHash;
+    }
+
+    public int size() {
+        return requirements.size();
+    }
+
+    public PortalRequirement requirement(int ordinal) {
+        return requirements.get(ordinal);
+    }
+
+    /**
+     * @return the requirement gating a dimension, or null if it has none
+     */
+    public PortalRequirement requirement(ResourceLocation dimension) {
+        return byDimension.get(dimension);
+    }
+
+    /**
+     * @return every requirement keyed by dimension, in ordinal order
+     */
+    public Map<ResourceLocation, PortalRequirement> requirementsByDimension() {
+        return byDimension;
+    }
+
+    /**
+     * @return the ordinal of a dimension's requirement, or -1 if it has none
+     */
+    public int ordinalOf(ResourceLocation dimension) {
+        Integer ordinal = ordinalByDimension.get(dimension);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * @return the ordinal of the requirement gating a level, or -1 if it has none
+     */
+    public int ordinalOf(ResourceKey<Level> level) {
+        return ordinalByLevel.getInt(level);
+    }
+
+    /**
+     * @return the ordinal of the requirement unlocked by an advancement, or -1 if none is
+     */
+    public int ordinalOfAdvancement(ResourceLocation advancement) {
+        Integer ordinal = ordinalByAdvancement.get(advancement);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public long[] killMask(int ordinal) {
+        return killMasks[ordinal];
+    }
+
+    public long[] itemMask(int ordinal) {
+        return itemMasks[ordinal];
+    }
+
+    /**
+     * @return bitset over the ordinals of every requirement that must be open before this one can be
+     */
+    public long[] ancestors(int ordinal) {
+        return ancestorMasks[ordinal];
+    }
+
+    /**
+     * @return true if the progress bitset meets every listed target and the condition of a requirement
+     */
+    public boolean isSatisfied(int ordinal, long[] progress) {
+        return programs[ordinal].isSatisfied(progress);
+    }
+
+    public RequirementProgram program(int ordinal) {
+        return programs[ordinal];
+    }
+
+    public long[] resetMask(int ordinal) {
+        return resetMasks[ordinal];
+    }
+
+    public int killTargetCount(int ordinal) {
+        return killTargetCounts[ordinal];
+    }
+
+    public int itemTargetCount(int ordinal) {
+        return itemTargetCounts[ordinal];
+    }
+
+    /**
+     * @return how many kills the target in this slot needs, at least 1
+     */
+    public int killThreshold(int slot) {
+        return slot >= 0 && slot < killThresholdBySlot.length ? Math.max(1, killThresholdBySlot[slot]) : 1;
+    }
+
+    public int killThreshold(EntityType<?> entityType) {
+        return killThreshold(RequirementSlots.entitySlot(entityType));
+    }
+
+    /**
+     * @return how many kills the target in this slot needs toward one requirement, at least 1
+     */
+    public int killThreshold(int ordinal, int slot) {
+        int[] slots = lowerThresholdSlots[ordinal];
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == slot) {
+                return lowerThresholds[ordinal][i];
+            }
+        }
+        return killThreshold(slot);
+    }
+
+    /**
+     * @return true if some requirement needs fewer kills of the target in this slot than {@link #killThreshold(int)}
+     */
+    public boolean hasSplitThreshold(int slot) {
+        return BitSets.get(splitThresholdSlots, slot);
+    }
+
+    /**
+     * @return kill slots this requirement needs fewer kills of than {@link #killThreshold(int)}, read-only
+     */
+    public IntList lowerThresholdSlots(int ordinal) {
+        return lowerThresholdSlotViews[ordinal];
+    }
+
+    /**
+     * @return this requirement's own kill count for each of {@link #lowerThresholdSlots}, read-only
+     */
+    public IntList lowerThresholds(int ordinal) {
+        return lowerThresholdViews[ordinal];
+    }
+
+    /**
+     * @return how many bitset words a progress copy needs to hold every slot of {@link #lowerThresholdSlots}
+     */
+    public int lowerThresholdWords(int ordinal) {
+        return lowerThresholdWords[ordinal];
+    }
+
+    /**
+     * Turns a copy of the progress bitset into the progress as one requirement sees it. A progress bit means a
+     * kill target reached its highest threshold; targets this requirement needs fewer kills of also count once
+     * their kill count reaches its own.
+     * @param killCounts Kills so far per slot
+     * @param progress Copy to update in place, at least {@link #lowerThresholdWords} long
+     */
+    public void applyLowerThresholds(int ordinal, int[] killCounts, long[] progress) {
+        int[] slots = lowerThresholdSlots[ordinal];
+        int[] thresholds = lowerThresholds[ordinal];
+        for (int i = 0; i < slots.length; i++) {
+            int slot = slots[i];
+            if (slot < killCounts.length && killCounts[slot] >= thresholds[i]) {
+                progress[slot >>> 6] |= 1L << slot;
+            }
+        }
+    }
+
+    /**
+     * @return ordinals of every requirement that lists the target in this slot or reads it in its condition
+     */
+    public int[] requirementsForSlot(int slot) {
+        return slot >= 0 && slot < requirementsBySlot.length ? requirementsBySlot[slot] : NO_REQUIREMENTS;
+    }
+}
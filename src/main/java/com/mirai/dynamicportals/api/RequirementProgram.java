@@ -0,0 +1,138 @@
+package com.mirai.dynamicportals.api;
+
+import com.mirai.dynamicportals.util.BitSets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A requirement compiled into a flat list of threshold groups, evaluated against a progress bitset.
+ * <p>
+ * Groups are stored children first. Each group counts its satisfied leaf slots with one masked popcount
+ * and its satisfied child groups with another, against a single {@code long} of group results, so
+ * evaluation is straight-line bit arithmetic that never allocates. The last group is the root.
+ */
+public final class RequirementProgram {
+    // Group results live in one long
+    public static final int MAX_GROUPS = Long.SIZE;
+
+    // Per group: slots of its leaf children, bits of its child groups, and how many children must hold
+    private final long[][] slotMasks;
+    private final long[] childGroups;
+    private final int[] thresholds;
+
+    private RequirementProgram(long[][] slotMasks, long[] childGroups, int[] thresholds) {
+        this.slotMasks = slotMasks;
+        this.childGroups = childGroups;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * @param progress Bitset over {@link RequirementSlots} slots
+     * @return true if the root group holds
+     */
+    public boolean isSatisfied(long[] progress) {
+        long results = 0L;
+        for (int group = 0; group < thresholds.length; group++) {
+            int satisfied = BitSets.intersectionCount(progress, slotMasks[group]) + Long.bitCount(results & childGroups[group]);
+            if (satisfied >= thresholds[group]) {
+                results |= 1L << group;
+            }
+        }
+        return (results & (1L << (thresholds.length - 1))) != 0;
+    }
+
+    /**
+     * @return every slot the program reads
+     */
+    public long[] slots() {
+        long[] slots = BitSets.EMPTY;
+        for (long[] mask : slotMasks) {
+            slots = BitSets.or(slots, mask);
+        }
+        return slots;
+    }
+
+    /**
+     * Compiles the listed targets of a requirement, all of which must hold, together with its condition tree.
+     * @param listed Slots of the listed targets
+     * @param condition Extra condition, or null
+     * @param slotOf Resolves a leaf to its slot, registering the target with the index being built
+     * @throws IllegalArgumentException if the condition and the root need more than {@link #MAX_GROUPS} groups
+     */
+    static RequirementProgram compile(long[] listed, RequirementExpression condition, ToIntFunction<RequirementExpression.Target> slotOf) {
+        if (condition == null) {
+            return new RequirementProgram(new long[][]{listed}, new long[]{0L}, new int[]{BitSets.cardinality(listed)});
+        }
+        Compiler compiler = new Compiler(slotOf);
+        long[] rootSlots = listed.clone();
+        long rootGroups = 0L;
+        if (condition instanceof RequirementExpression.Target target) {
+            rootSlots = BitSets.set(rootSlots, slotOf.applyAsInt(target));
+        } else {
+            rootGroups = 1L << compiler.group((RequirementExpression.Group) condition);
+        }
+        compiler.add(rootSlots, rootGroups, BitSets.cardinality(rootSlots) + Long.bitCount(rootGroups));
+        return compiler.build();
+    }
+
+    /**
+     * @return how many groups a condition compiles to, not counting the root
+     */
+    static int groupCount(RequirementExpression condition) {
+        if (!(condition instanceof RequirementExpression.Group group)) {
+            return 0;
+        }
+        int count = 1;
+        for (RequirementExpression child : group.of()) {
+            count += groupCount(child);
+        }
+        return count;
+    }
+
+    private static final class Compiler {
+        private final ToIntFunction<RequirementExpression.Target> slotOf;
+        private final List<long[]> slotMasks = new ArrayList<>();
+        private final List<Long> childGroups = new ArrayList<>();
+        private final List<Integer> thresholds = new ArrayList<>();
+
+        Compiler(ToIntFunction<RequirementExpression.Target> slotOf) {
+            this.slotOf = slotOf;
+        }
+
+        int group(RequirementExpression.Group group) {
+            long[] slots = BitSets.EMPTY;
+            long children = 0L;
+            for (RequirementExpression child : group.of()) {
+                if (child instanceof RequirementExpression.Target target) {
+                    slots = BitSets.set(slots, slotOf.applyAsInt(target));
+                } else {
+                    children |= 1L << group((RequirementExpression.Group) child);
+                }
+            }
+            // A target listed twice in one group only counts once
+            return add(slots, children, group.required(BitSets.cardinality(slots) + Long.bitCount(children)));
+        }
+
+        int add(long[] slots, long children, int threshold) {
+            if (thresholds.size() == MAX_GROUPS) {
+                throw new IllegalArgumentException("Requirement condition has more than " + MAX_GROUPS + " groups");
+            }
+            slotMasks.add(slots);
+            childGroups.add(children);
+            thresholds.add(threshold);
+            return thresholds.size() - 1;
+        }
+
+        RequirementProgram build() {
+            long[] groups = new long[childGroups.size()];
+            int[] required = new int[thresholds.size()];
+            for (int i = 0; i < groups.length; i++) {
+                groups[i] = childGroups.get(i);
+                required[i] = thresholds.get(i);
+            }
+            return new RequirementProgram(slotMasks.toArray(new long[0][]), groups, required);
+        }
+    }
+}
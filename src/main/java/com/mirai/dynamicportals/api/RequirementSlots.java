@@ -0,0 +1,171 @@
+package com.mirai.dynamicportals.api;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense int slots for requirement targets (mobs, bosses, items and entity or item tags), used to index
+ * player progress bitsets. A tag entry has a slot of its own, separate from the slots of its members.
+ * <p>
+ * Slots are append-only for the lifetime of the game instance, so a bitset built against an
+ * older table stays valid when requirements are added or removed. They are not stable across
+ * restarts; anything persisted or sent over the network must go through target ids instead.
+ */
+public final class RequirementSlots {
+    // Lookups by registry id, -1 when the target has no slot yet
+    private static volatile int[] entitySlots = new int[0];
+    private static volatile int[] itemSlots = new int[0];
+    private static final Map<TagKey<?>, Integer> tagSlots = new ConcurrentHashMap<>();
+    private static volatile Object[] targets = new Object[0];
+    // Registry id strings per slot, resolved once when the slot is handed out
+    private static volatile String[] ids = new String[0];
+
+    public static final String TAG_PREFIX = "#";
+
+    private RequirementSlots() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return the slot of an entity type, or -1 if it has never been assigned one
+     */
+    public static int entitySlot(EntityType<?> entityType) {
+        return lookup(entitySlots, BuiltInRegistries.ENTITY_TYPE.getId(entityType));
+    }
+
+    /**
+     * @return the slot of an item, or -1 if it has never been assigned one
+     */
+    public static int itemSlot(Item item) {
+        return lookup(itemSlots, BuiltInRegistries.ITEM.getId(item));
+    }
+
+    public static synchronized int getOrCreateEntitySlot(EntityType<?> entityType) {
+        int id = BuiltInRegistries.ENTITY_TYPE.getId(entityType);
+        int slot = lookup(entitySlots, id);
+        if (slot < 0 && id >= 0) {
+            slot = append(entityType, compactId(BuiltInRegistries.ENTITY_TYPE.getKey(entityType)));
+            entitySlots = assign(entitySlots, id, slot);
+        }
+        return slot;
+    }
+
+    public static synchronized int getOrCreateItemSlot(Item item) {
+        int id = BuiltInRegistries.ITEM.getId(item);
+        int slot = lookup(itemSlots, id);
+        if (slot < 0 && id >= 0) {
+            slot = append(item, compactId(BuiltInRegistries.ITEM.getKey(item)));
+            itemSlots = assign(itemSlots, id, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return the slot of an entity or item tag, or -1 if it has never been assigned one
+     */
+    public static int tagSlot(TagKey<?> tag) {
+        return tagSlots.getOrDefault(tag, -1);
+    }
+
+    public static synchronized int getOrCreateTagSlot(TagKey<?> tag) {
+        Integer slot = tagSlots.get(tag);
+        if (slot == null) {
+            slot = append(tag, TAG_PREFIX + compactId(tag.location()));
+            tagSlots.put(tag, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return the number of slots handed out so far
+     */
+    public static int size() {
+        return targets.length;
+    }
+
+    /**
+     * @return the entity type in a slot, or null if the slot holds an item or a tag or was never handed out
+     */
+    public static EntityType<?> entityAt(int slot) {
+        return targetAt(slot) instanceof EntityType<?> entityType ? entityType : null;
+    }
+
+    /**
+     * @return the item in a slot, or null if the slot holds an entity type or a tag or was never handed out
+     */
+    public static Item itemAt(int slot) {
+        return targetAt(slot) instanceof Item item ? item : null;
+    }
+
+    /**
+     * @return the tag in a slot, or null if the slot holds a single entity type or item or was never handed out
+     */
+    public static TagKey<?> tagAt(int slot) {
+        return targetAt(slot) instanceof TagKey<?> tag ? tag : null;
+    }
+
+    /**
+     * @return true if the slot holds an item or an item tag, false for entity types and entity tags
+     */
+    public static boolean isItemSlot(int slot) {
+        Object target = targetAt(slot);
+        return target instanceof Item || target instanceof TagKey<?> tag && tag.isFor(Registries.ITEM);
+    }
+
+    /**
+     * @return the registry id of the target in a slot, with the default namespace omitted and tags prefixed with '#',
+     * or null if the slot was never handed out
+     */
+    public static String idAt(int slot) {
+        String[] current = ids;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    private static Object targetAt(int slot) {
+        Object[] current = targets;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * Shortens a registry id for storage; {@link ResourceLocation#parse} restores the default namespace.
+     */
+    public static String compactId(ResourceLocation id) {
+        return id.getNamespace().equals(ResourceLocation.DEFAULT_NAMESPACE) ? id.getPath() : id.toString();
+    }
+
+    private static int lookup(int[] slots, int id) {
+        return id >= 0 && id < slots.length ? slots[id] : -1;
+    }
+
+    private static int append(Object target, String id) {
+        String[] grownIds = Arrays.copyOf(ids, ids.length + 1);
+        grownIds[ids.length] = id;
+        ids = grownIds;
+
+        Object[] grown = Arrays.copyOf(targets, targets.length + 1);
+        grown[targets.length] = target;
+        // Publish the target before the id lookup that points at it
+        targets = grown;
+        return grown.length - 1;
+    }
+
+    private static int[] assign(int[] slots, int id, int slot) {
+        int[] updated = slots;
+        if (id >= slots.length) {
+            updated = Arrays.copyOf(slots, Math.max(id + 1, slots.length * 2));
+            Arrays.fill(updated, slots.length, updated.length, -1);
+        } else {
+            updated = slots.clone();
+        }
+        updated[id] = slot;
+        return updated;
+    }
+}
@@ -1,13 +1,53 @@
 package com.mirai.dynamicportals.client;
 
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.network.ProgressDeltaPacket;
+import com.mirai.dynamicportals.network.ProgressWireTable;
+import com.mirai.dynamicportals.network.RequestProgressSyncPacket;
 import com.mirai.dynamicportals.network.SyncProgressPacket;
+import com.mirai.dynamicportals.network.SyncRequirementsPacket;
+import net.minecraft.resources.ResourceLocation;
 import net.neoforged.neoforge.network.handling.IPayloadContext;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class ClientPacketHandler {
     public static void handleSyncProgress(final SyncProgressPacket packet, final IPayloadContext context) {
         context.enqueueWork(() -> {
             // Store the synced data in client-side cache for HUD rendering
-            ClientProgressCache.updateFromPacket(packet);
+            if (packet.table() != null) {
+                ClientProgressCache.updateFromPacket(packet);
+            } else if (ClientProgressCache.mergeFromPacket(packet)) {
+                // Encoded against other requirements than this client has; the server resends them with the answer
+                context.reply(RequestProgressSyncPacket.INSTANCE);
+            }
+        });
+    }
+
+    public static void handleProgressDelta(final ProgressDeltaPacket packet, final IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (ClientProgressCache.applyDelta(packet)) {
+                context.reply(RequestProgressSyncPacket.INSTANCE);
+            }
         });
     }
+
+    public static void handleSyncRequirements(final SyncRequirementsPacket packet, final IPayloadContext context) {
+        // An integrated server shares the registry with this client and has loaded the same datapacks already
+        if (context.connection().isMemoryConnection()) {
+            return;
+        }
+        // Set right away, so progress packets decoded after this one already read against it
+        ProgressWireTable.setReceived(ProgressWireTable.of(packet.requirements()));
+
+        Map<ResourceLocation, PortalRequirement> requirements = new HashMap<>();
+        for (PortalRequirement requirement : packet.requirements()) {
+            requirements.put(requirement.getDimension(), requirement);
+        }
+        PortalRequirementRegistry.DatapackRequirements compiled =
+                PortalRequirementRegistry.getInstance().compileDatapackRequirements(requirements, packet.contentHash());
+        context.enqueueWork(() -> PortalRequirementRegistry.getInstance().applyDatapackRequirements(compiled));
+    }
 }
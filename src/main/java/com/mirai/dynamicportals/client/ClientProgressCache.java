@@ -1,7 +1,12 @@
 package com.mirai.dynamicportals.client;
 
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.data.ProgressListener;
+import com.mirai.dynamicportals.network.ProgressDeltaPacket;
 import com.mirai.dynamicportals.network.SyncProgressPacket;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
 
@@ -11,30 +16,93 @@ import java.util.Map;
 import java.util.Set;
 
 public class ClientProgressCache {
-    private static Map<EntityType<?>, Boolean> killedMobs = new HashMap<>();
-    private static Set<Item> obtainedItems = new HashSet<>();
+    // Mirrors the server-side data so the HUD gets the same constant-time completion counters
+    private static PlayerProgressData progressData = new PlayerProgressData();
     private static int deathCount = 0;
-    private static Set<ResourceLocation> unlockedAchievements = new HashSet<>();
     private static boolean cacheValid = false;
+    // Sequence of the last delta applied, and whether a full snapshot has been asked for since a gap
+    private static int sequence = 0;
+    private static boolean resyncRequested = false;
 
     public static void updateFromPacket(SyncProgressPacket packet) {
-        killedMobs = new HashMap<>(packet.killedMobs());
-        obtainedItems = new HashSet<>(packet.obtainedItems());
+        PlayerProgressData data = new PlayerProgressData();
+        apply(data, packet);
+
+        progressData = data;
+        deathCount = packet.deathCount();
+        sequence = packet.sequence();
+        resyncRequested = false;
+        cacheValid = true;
+    }
+
+    /**
+     * Applies a snapshot encoded against another requirement table than this client has. Only its
+     * fallback part could be read, so it is merged into the current progress instead of replacing it.
+     * @return true if a full snapshot should be requested, which happens once until a readable one arrives
+     */
+    public static boolean mergeFromPacket(SyncProgressPacket packet) {
+        apply(progressData, packet);
         deathCount = packet.deathCount();
-        unlockedAchievements = new HashSet<>(packet.unlockedAchievements());
+        sequence = packet.sequence();
         cacheValid = true;
+
+        boolean request = !resyncRequested;
+        resyncRequested = true;
+        return request;
+    }
+
+    private static void apply(PlayerProgressData data, SyncProgressPacket packet) {
+        packet.killedMobs().forEach(data::markMobKilled);
+        packet.killCounts().forEach(data::setKillCount);
+        packet.obtainedItems().forEach(data::markItemObtained);
+        packet.unlockedAchievements().forEach(data::unlockAchievement);
+        packet.tagProgress().mobTagKills().forEach((tag, count) -> data.setKillCount(TagKey.create(Registries.ENTITY_TYPE, tag), count));
+        packet.tagProgress().itemTags().forEach(tag -> data.markItemTagObtained(TagKey.create(Registries.ITEM, tag)));
+    }
+
+    /**
+     * Applies a delta on top of the current progress, unless one was missed before it
+     * @return true if a full snapshot should be requested
+     */
+    public static boolean applyDelta(ProgressDeltaPacket packet) {
+        if (!cacheValid || packet.sequence() != sequence + 1) {
+            // Deltas are dropped until the snapshot arrives, which is only asked for once
+            boolean request = !resyncRequested;
+            resyncRequested = true;
+            return request;
+        }
+        for (ProgressDeltaPacket.Change change : packet.changes()) {
+            if (change.op() == ProgressListener.OP_DEATH_COUNT) {
+                deathCount = change.value();
+            }
+            progressData.applyChange(change.op(), change.id().orElse(null), change.value());
+        }
+        sequence = packet.sequence();
+        return false;
     }
 
     public static boolean hasMobBeenKilled(EntityType<?> entityType) {
-        return killedMobs.getOrDefault(entityType, false);
+        return progressData.hasMobBeenKilled(entityType);
+    }
+
+    public static int getKillCount(EntityType<?> entityType) {
+        return progressData.getKillCount(entityType);
+    }
+
+    public static int getKillCount(TagKey<EntityType<?>> tag) {
+        return progressData.getKillCount(tag);
+    }
+
+    public static boolean hasTagBeenCompleted(TagKey<?> tag) {
+        return progressData.hasTagBeenCompleted(tag);
     }
 
     public static boolean hasItemBeenObtained(Item item) {
-        return obtainedItems.contains(item);
+        return progressData.hasItemBeenObtained(item);
     }
 
     public static Set<Item> getObtainedItems() {
-        return new HashSet<>(obtainedItems);
+        return new HashSet<>(progressData.getObtainedItems());
     }
 
     public static int getDeathCount() {
@@ -42,11 +110,23 @@ public class ClientProgressCache {
     }
 
     public static boolean isAchievementUnlocked(ResourceLocation achievement) {
-        return unlockedAchievements.contains(achievement);
+        return progressData.isAchievementUnlocked(achievement);
     }
 
     public static Map<EntityType<?>, Boolean> getKilledMobs() {
-        return new HashMap<>(killedMobs);
+        return new HashMap<>(progressData.getKilledMobs());
+    }
+
+    public static boolean isRequirementComplete(ResourceLocation dimension) {
+        return progressData.isRequirementComplete(dimension);
+    }
+
+    public static int getCompletedTargets(ResourceLocation dimension) {
+        return progressData.getCompletedTargets(dimension);
+    }
+
+    public static int getTotalTargets(ResourceLocation dimension) {
+        return progressData.getTotalTargets(dimension);
     }
 
     public static boolean isCacheValid() {
@@ -58,10 +138,10 @@ public class ClientProgressCache {
     }
 
     public static void clear() {
-        killedMobs.clear();
-        obtainedItems.clear();
+        progressData = new PlayerProgressData();
         deathCount = 0;
-        unlockedAchievements.clear();
+        sequence = 0;
+        resyncRequested = false;
         cacheValid = false;
     }
 }
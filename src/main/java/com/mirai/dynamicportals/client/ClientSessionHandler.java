@@ -0,0 +1,19 @@
+package com.mirai.dynamicportals.client;
+
+import com.mirai.dynamicportals.network.ProgressWireTable;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+
+/**
+ * Drops per-server client state when leaving a server, so the next one starts from a full sync.
+ * Registered during client setup.
+ */
+public class ClientSessionHandler {
+
+    @SubscribeEvent
+    public void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        // Otherwise the next server's first delta is checked against this server's sequence
+        ClientProgressCache.clear();
+        ProgressWireTable.setReceived(ProgressWireTable.EMPTY);
+    }
+}
@@ -1,41 +1,34 @@
 package com.mirai.dynamicportals.client;
 
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementExpression;
+import com.mirai.dynamicportals.api.RequirementIndex;
 import com.mirai.dynamicportals.util.ModConstants;
 import com.mojang.blaze3d.platform.InputConstants;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.entity.EntityType;
-import net.minecraft.world.item.Items;
+import net.minecraft.world.item.Item;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.client.event.InputEvent;
 import net.neoforged.neoforge.client.event.RenderGuiLayerEvent;
-
-import java.util.List;
+import net.neoforged.neoforge.common.Tags;
 
 @EventBusSubscriber(modid = ModConstants.MOD_ID, value = Dist.CLIENT)
 public class ProgressHUD {
     
     private static boolean hudVisible = false;
-    private static boolean overworldPhase = true; // true = overworld->nether, false = nether->end
-
-    // Overworld -> Nether requirements
-    private static final List<EntityType<?>> OVERWORLD_MOBS = List.of(
-            EntityType.ZOMBIE, EntityType.SKELETON, EntityType.CREEPER, EntityType.SPIDER,
-            EntityType.ENDERMAN, EntityType.WITCH, EntityType.SLIME, EntityType.DROWNED,
-            EntityType.HUSK, EntityType.STRAY, EntityType.BREEZE, EntityType.BOGGED,
-            EntityType.PILLAGER, EntityType.VINDICATOR, EntityType.EVOKER
-    );
-    private static final List<EntityType<?>> OVERWORLD_BOSSES = List.of(EntityType.ELDER_GUARDIAN);
-
-    // Nether -> End requirements
-    private static final List<EntityType<?>> NETHER_MOBS = List.of(
-            EntityType.GHAST, EntityType.BLAZE, EntityType.WITHER_SKELETON,
-            EntityType.PIGLIN, EntityType.PIGLIN_BRUTE, EntityType.HOGLIN
-    );
-    private static final List<EntityType<?>> NETHER_BOSSES = List.of(EntityType.WARDEN, EntityType.WITHER);
+    // Index into the registered requirements, one phase per gated dimension, in prerequisite order
+    private static int phase = 0;
+
+    // Phase title colors, cycled in requirement order
+    private static final int[] PHASE_COLORS = {0xFFFF55, 0xFF5555, 0xFF55FF, 0x55FFFF};
 
     @SubscribeEvent
     public static void onKeyInput(InputEvent.Key event) {
@@ -47,7 +40,7 @@ public class ProgressHUD {
 
         // Switch phase with Tab when HUD is open
         if (hudVisible && event.getKey() == InputConstants.KEY_TAB && event.getAction() == InputConstants.PRESS) {
-            overworldPhase = !overworldPhase;
+            phase++;
         }
     }
 
@@ -75,8 +68,11 @@ public class ProgressHUD {
         int hudX = screenWidth - hudWidth - padding;
         int hudY = padding;
 
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        PortalRequirement requirement = index.size() > 0 ? index.requirement(Math.floorMod(phase, index.size())) : null;
+
         // Dynamic height calculation
-        int estimatedHeight = calculateHUDHeight(lineHeight, lineSpacing, sectionSpacing);
+        int estimatedHeight = calculateHUDHeight(requirement, lineHeight, lineSpacing, sectionSpacing);
 
         // Background with padding
         int bgPadding = 4;
@@ -101,77 +97,67 @@ public class ProgressHUD {
         hudY += lineHeight + sectionSpacing;
 
         // Current phase display
-        if (overworldPhase) {
-            renderOverworldPhase(guiGraphics, mc, hudX, hudY, lineHeight, lineSpacing, sectionSpacing, indent);
-        } else {
-            renderNetherPhase(guiGraphics, mc, hudX, hudY, lineHeight, lineSpacing, sectionSpacing, indent);
+        if (requirement != null) {
+            int color = PHASE_COLORS[Math.floorMod(phase, index.size()) % PHASE_COLORS.length];
+            renderPhase(guiGraphics, mc, requirement, color, hudX, hudY, lineHeight, lineSpacing, sectionSpacing, indent);
         }
     }
 
-    private static int calculateHUDHeight(int lineHeight, int lineSpacing, int sectionSpacing) {
+    private static boolean isPhaseCompleted(PortalRequirement requirement) {
+        ResourceLocation advancement = requirement.getRequiredAdvancement();
+        return advancement != null
+                ? ClientProgressCache.isAchievementUnlocked(advancement)
+                : ClientProgressCache.isRequirementComplete(requirement.getDimension());
+    }
+
+    private static int calculateHUDHeight(PortalRequirement requirement, int lineHeight, int lineSpacing, int sectionSpacing) {
         // Base: title + death counter + tab hint
         int height = (lineHeight + lineSpacing) + (lineHeight + sectionSpacing) + (lineHeight + sectionSpacing);
-        
-        if (overworldPhase) {
-            if (!ClientProgressCache.isAchievementUnlocked(ModConstants.NETHER_ACCESS_ADVANCEMENT)) {
-                // Phase title + progress line
-                height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
-                // Mobs header + mobs
-                height += (lineHeight + lineSpacing) + (OVERWORLD_MOBS.size() * (lineHeight + lineSpacing));
-                // Boss header + bosses
-                height += sectionSpacing + (lineHeight + lineSpacing) + (OVERWORLD_BOSSES.size() * (lineHeight + lineSpacing));
-                // Items header + items
-                height += sectionSpacing + (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
-            } else {
-                // Just phase title + completed message
-                height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
+        if (requirement == null) {
+            return height;
+        }
+
+        if (!isPhaseCompleted(requirement)) {
+            // Phase title + progress line
+            height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
+            // Mobs header + mobs
+            height += (lineHeight + lineSpacing) + ((requirement.getRequiredMobs().size() + requirement.getRequiredMobTags().size()) * (lineHeight + lineSpacing));
+            // Boss header + bosses
+            height += sectionSpacing + (lineHeight + lineSpacing) + (requirement.getRequiredBosses().size() * (lineHeight + lineSpacing));
+            // Items header + items
+            height += sectionSpacing + (lineHeight + lineSpacing) + ((requirement.getRequiredItems().size() + requirement.getRequiredItemTags().size()) * (lineHeight + lineSpacing));
+            // Condition header + one line per node
+            if (requirement.getCondition() != null) {
+                height += sectionSpacing + (lineHeight + lineSpacing) + (conditionLines(requirement.getCondition()) * (lineHeight + lineSpacing));
             }
         } else {
-            if (!ClientProgressCache.isAchievementUnlocked(ModConstants.END_ACCESS_ADVANCEMENT)) {
-                // Phase title + progress line
-                height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
-                // Mobs header + mobs
-                height += (lineHeight + lineSpacing) + (NETHER_MOBS.size() * (lineHeight + lineSpacing));
-                // Boss header + bosses
-                height += sectionSpacing + (lineHeight + lineSpacing) + (NETHER_BOSSES.size() * (lineHeight + lineSpacing));
-                // Items header + items
-                height += sectionSpacing + (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
-            } else {
-                // Just phase title + completed message
-                height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
-            }
+            // Just phase title + completed message
+            height += (lineHeight + lineSpacing) + (lineHeight + lineSpacing);
         }
         
         return height;
     }
 
-    private static void renderOverworldPhase(GuiGraphics guiGraphics, Minecraft mc, int x, int y, int lineHeight, int lineSpacing, int sectionSpacing, int indent) {
+    private static void renderPhase(GuiGraphics guiGraphics, Minecraft mc, PortalRequirement requirement, int titleColor, int x, int y, int lineHeight, int lineSpacing, int sectionSpacing, int indent) {
+        ResourceLocation dimension = requirement.getDimension();
+
         // Phase title
-        Component phaseTitle = Component.translatable(ModConstants.HUD_PHASE_OVERWORLD);
-        guiGraphics.drawString(mc.font, phaseTitle, x, y, 0xFFFF55, true);
+        Component phaseTitle = Component.translatableWithFallback(ModConstants.HUD_PHASE + "." + dimension.toLanguageKey(), "→ " + dimension);
+        guiGraphics.drawString(mc.font, phaseTitle, x, y, titleColor, true);
         y += lineHeight + lineSpacing;
 
         // Check if phase is completed
-        boolean phaseCompleted = ClientProgressCache.isAchievementUnlocked(ModConstants.NETHER_ACCESS_ADVANCEMENT);
-        if (phaseCompleted) {
+        if (isPhaseCompleted(requirement)) {
             Component completed = Component.translatable(ModConstants.HUD_COMPLETED);
             guiGraphics.drawString(mc.font, completed, x, y, 0x55FF55, true);
             return;
         }
 
         // Progress bar
-        int killed = 0;
-        int total = OVERWORLD_MOBS.size() + OVERWORLD_BOSSES.size() + 1; // +1 for diamond
-        
-        for (EntityType<?> mob : OVERWORLD_MOBS) {
-            if (ClientProgressCache.hasMobBeenKilled(mob)) killed++;
-        }
-        for (EntityType<?> boss : OVERWORLD_BOSSES) {
-            if (ClientProgressCache.hasMobBeenKilled(boss)) killed++;
-        }
-        if (ClientProgressCache.hasItemBeenObtained(Items.DIAMOND)) killed++;
+        int killed = ClientProgressCache.getCompletedTargets(dimension);
+        int total = ClientProgressCache.getTotalTargets(dimension);
         
-        Component progressText = Component.translatable(ModConstants.HUD_PROGRESS_OVERWORLD, killed, total);
+        Component progressText = Component.translatable(ModConstants.HUD_PROGRESS, killed, total);
         guiGraphics.drawString(mc.font, progressText, x, y, 0xFFFFFF, false);
         y += lineHeight + lineSpacing;
 
@@ -180,8 +166,11 @@ public class ProgressHUD {
         guiGraphics.drawString(mc.font, mobsHeader, x, y, 0xAAAAFF, false);
         y += lineHeight + lineSpacing;
 
-        for (EntityType<?> mob : OVERWORLD_MOBS) {
-            y = renderMobEntry(guiGraphics, mc, x + indent, y, mob, lineHeight, lineSpacing);
+        for (EntityType<?> mob : requirement.getRequiredMobs()) {
+            y = renderMobEntry(guiGraphics, mc, x + indent, y, mob, requirement.getRequiredKillCount(mob), lineHeight, lineSpacing);
+        }
+        for (TagKey<EntityType<?>> tag : requirement.getRequiredMobTags()) {
+            y = renderMobTagEntry(guiGraphics, mc, x + indent, y, tag, requirement.getRequiredKillCount(tag), lineHeight, lineSpacing);
         }
 
         // Render boss checklist
@@ -190,8 +179,8 @@ public class ProgressHUD {
         guiGraphics.drawString(mc.font, bossHeader, x, y, 0xFFAAAA, false);
         y += lineHeight + lineSpacing;
 
-        for (EntityType<?> boss : OVERWORLD_BOSSES) {
-            y = renderMobEntry(guiGraphics, mc, x + indent, y, boss, lineHeight, lineSpacing);
+        for (EntityType<?> boss : requirement.getRequiredBosses()) {
+            y = renderMobEntry(guiGraphics, mc, x + indent, y, boss, requirement.getRequiredKillCount(boss), lineHeight, lineSpacing);
         }
 
         // Required items
@@ -200,82 +189,104 @@ public class ProgressHUD {
         guiGraphics.drawString(mc.font, itemsHeader, x, y, 0xAAFFAA, false);
         y += lineHeight + lineSpacing;
 
-        boolean hasDiamond = ClientProgressCache.hasItemBeenObtained(Items.DIAMOND);
-        Component diamondText = Component.literal("Diamond");
-        int diamondColor = hasDiamond ? 0x55FF55 : 0xFF5555;
-        String diamondCheckbox = hasDiamond ? "☑" : "☐";
-        guiGraphics.drawString(mc.font, diamondCheckbox + " " + diamondText.getString(), x + indent, y, diamondColor, false);
-    }
-
-    private static void renderNetherPhase(GuiGraphics guiGraphics, Minecraft mc, int x, int y, int lineHeight, int lineSpacing, int sectionSpacing, int indent) {
-        // Phase title
-        Component phaseTitle = Component.translatable(ModConstants.HUD_PHASE_NETHER);
-        guiGraphics.drawString(mc.font, phaseTitle, x, y, 0xFF5555, true);
-        y += lineHeight + lineSpacing;
+        for (Item item : requirement.getRequiredItems()) {
+            y = renderItemEntry(guiGraphics, mc, x + indent, y, item, lineHeight, lineSpacing);
+        }
+        for (TagKey<Item> tag : requirement.getRequiredItemTags()) {
+            y = renderItemTagEntry(guiGraphics, mc, x + indent, y, tag, lineHeight, lineSpacing);
+        }
 
-        // Check if phase is completed
-        boolean phaseCompleted = ClientProgressCache.isAchievementUnlocked(ModConstants.END_ACCESS_ADVANCEMENT);
-        if (phaseCompleted) {
-            Component completed = Component.translatable(ModConstants.HUD_COMPLETED);
-            guiGraphics.drawString(mc.font, completed, x, y, 0x55FF55, true);
-            return;
+        // Condition tree, one indent per nesting level
+        if (requirement.getCondition() != null) {
+            y += sectionSpacing;
+            Component conditionHeader = Component.translatable(ModConstants.HUD_REQUIRED_CONDITION);
+            guiGraphics.drawString(mc.font, conditionHeader, x, y, 0xFFFFAA, false);
+            y += lineHeight + lineSpacing;
+            renderCondition(guiGraphics, mc, requirement.getCondition(), x + indent, y, lineHeight, lineSpacing, indent);
         }
+    }
 
-        // Progress bar
-        int killed = 0;
-        int total = NETHER_MOBS.size() + NETHER_BOSSES.size() + 1; // +1 for netherite
-        
-        for (EntityType<?> mob : NETHER_MOBS) {
-            if (ClientProgressCache.hasMobBeenKilled(mob)) killed++;
+    private static int renderCondition(GuiGraphics guiGraphics, Minecraft mc, RequirementExpression expression, int x, int y, int lineHeight, int lineSpacing, int indent) {
+        return switch (expression) {
+            case RequirementExpression.Kill kill -> renderMobEntry(guiGraphics, mc, x, y, kill.entityType(), kill.count(), lineHeight, lineSpacing);
+            case RequirementExpression.KillTag killTag -> renderMobTagEntry(guiGraphics, mc, x, y, killTag.tag(), killTag.count(), lineHeight, lineSpacing);
+            case RequirementExpression.Obtain obtain -> renderItemEntry(guiGraphics, mc, x, y, obtain.item(), lineHeight, lineSpacing);
+            case RequirementExpression.ObtainTag obtainTag -> renderItemTagEntry(guiGraphics, mc, x, y, obtainTag.tag(), lineHeight, lineSpacing);
+            case RequirementExpression.Group group -> {
+                Component label = switch (group) {
+                    case RequirementExpression.All all -> Component.translatable(ModConstants.HUD_CONDITION_ALL);
+                    case RequirementExpression.Any any -> Component.translatable(ModConstants.HUD_CONDITION_ANY);
+                    case RequirementExpression.AtLeast atLeast -> Component.translatable(ModConstants.HUD_CONDITION_AT_LEAST, atLeast.count());
+                };
+                guiGraphics.drawString(mc.font, label, x, y, 0xAAAAAA, false);
+                int childY = y + lineHeight + lineSpacing;
+                for (RequirementExpression child : group.of()) {
+                    childY = renderCondition(guiGraphics, mc, child, x + indent, childY, lineHeight, lineSpacing, indent);
+                }
+                yield childY;
+            }
+        };
+    }
+
+    private static int conditionLines(RequirementExpression expression) {
+        if (!(expression instanceof RequirementExpression.Group group)) {
+            return 1;
         }
-        for (EntityType<?> boss : NETHER_BOSSES) {
-            if (ClientProgressCache.hasMobBeenKilled(boss)) killed++;
+        int lines = 1;
+        for (RequirementExpression child : group.of()) {
+            lines += conditionLines(child);
         }
-        if (ClientProgressCache.hasItemBeenObtained(Items.NETHERITE_INGOT)) killed++;
-        
-        Component progressText = Component.translatable(ModConstants.HUD_PROGRESS_NETHER, killed, total);
-        guiGraphics.drawString(mc.font, progressText, x, y, 0xFFFFFF, false);
-        y += lineHeight + lineSpacing;
+        return lines;
+    }
 
-        // Render mob checklist
-        Component mobsHeader = Component.translatable(ModConstants.HUD_REQUIRED_MOBS);
-        guiGraphics.drawString(mc.font, mobsHeader, x, y, 0xAAAAFF, false);
-        y += lineHeight + lineSpacing;
+    private static int renderItemTagEntry(GuiGraphics guiGraphics, Minecraft mc, int x, int y, TagKey<Item> tag, int lineHeight, int lineSpacing) {
+        boolean obtained = ClientProgressCache.hasTagBeenCompleted(tag);
+        String checkbox = obtained ? "☑" : "☐";
+        int color = obtained ? 0x55FF55 : 0xFF5555;
+        guiGraphics.drawString(mc.font, checkbox + " " + tagName(tag).getString(), x, y, color, false);
 
-        for (EntityType<?> mob : NETHER_MOBS) {
-            y = renderMobEntry(guiGraphics, mc, x + indent, y, mob, lineHeight, lineSpacing);
-        }
+        return y + lineHeight + lineSpacing;
+    }
 
-        // Render boss checklist
-        y += sectionSpacing;
-        Component bossHeader = Component.translatable(ModConstants.HUD_REQUIRED_BOSSES);
-        guiGraphics.drawString(mc.font, bossHeader, x, y, 0xFFAAAA, false);
-        y += lineHeight + lineSpacing;
+    // Counts are the entry's own; another requirement may need more kills of the same target
+    private static int renderMobTagEntry(GuiGraphics guiGraphics, Minecraft mc, int x, int y, TagKey<EntityType<?>> tag, int required, int lineHeight, int lineSpacing) {
+        boolean killed = ClientProgressCache.getKillCount(tag) >= required;
+        String checkbox = killed ? "☑" : "☐";
+        int color = killed ? 0x55FF55 : 0xFF5555;
 
-        for (EntityType<?> boss : NETHER_BOSSES) {
-            y = renderMobEntry(guiGraphics, mc, x + indent, y, boss, lineHeight, lineSpacing);
+        String label = checkbox + " " + tagName(tag).getString();
+        if (required > 1) {
+            label += " (" + Math.min(ClientProgressCache.getKillCount(tag), required) + "/" + required + ")";
         }
+        guiGraphics.drawString(mc.font, label, x, y, color, false);
 
-        // Required items
-        y += sectionSpacing;
-        Component itemsHeader = Component.translatable(ModConstants.HUD_REQUIRED_ITEMS);
-        guiGraphics.drawString(mc.font, itemsHeader, x, y, 0xAAFFAA, false);
-        y += lineHeight + lineSpacing;
+        return y + lineHeight + lineSpacing;
+    }
 
-        boolean hasNetherite = ClientProgressCache.hasItemBeenObtained(Items.NETHERITE_INGOT);
-        Component netheriteText = Component.literal("Netherite Ingot");
-        int netheriteColor = hasNetherite ? 0x55FF55 : 0xFF5555;
-        String netheriteCheckbox = hasNetherite ? "☑" : "☐";
-        guiGraphics.drawString(mc.font, netheriteCheckbox + " " + netheriteText.getString(), x + indent, y, netheriteColor, false);
+    private static Component tagName(TagKey<?> tag) {
+        return Component.translatableWithFallback(Tags.getTagTranslationKey(tag), "#" + tag.location());
     }
 
-    private static int renderMobEntry(GuiGraphics guiGraphics, Minecraft mc, int x, int y, EntityType<?> mobType, int lineHeight, int lineSpacing) {
-        boolean killed = ClientProgressCache.hasMobBeenKilled(mobType);
+    private static int renderItemEntry(GuiGraphics guiGraphics, Minecraft mc, int x, int y, Item item, int lineHeight, int lineSpacing) {
+        boolean obtained = ClientProgressCache.hasItemBeenObtained(item);
+        String checkbox = obtained ? "☑" : "☐";
+        int color = obtained ? 0x55FF55 : 0xFF5555;
+        guiGraphics.drawString(mc.font, checkbox + " " + item.getDescription().getString(), x, y, color, false);
+
+        return y + lineHeight + lineSpacing;
+    }
+
+    private static int renderMobEntry(GuiGraphics guiGraphics, Minecraft mc, int x, int y, EntityType<?> mobType, int required, int lineHeight, int lineSpacing) {
+        boolean killed = ClientProgressCache.getKillCount(mobType) >= required;
         String checkbox = killed ? "☑" : "☐";
         int color = killed ? 0x55FF55 : 0xFF5555;
         
         Component mobName = mobType.getDescription();
-        guiGraphics.drawString(mc.font, checkbox + " " + mobName.getString(), x, y, color, false);
+        String label = checkbox + " " + mobName.getString();
+        if (required > 1) {
+            label += " (" + Math.min(ClientProgressCache.getKillCount(mobType), required) + "/" + required + ")";
+        }
+        guiGraphics.drawString(mc.font, label, x, y, color, false);
         
         return y + lineHeight + lineSpacing;
     }
@@ -0,0 +1,57 @@
+package com.mirai.dynamicportals.data;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Default store: progress lives in the {@link ModAttachments#PLAYER_PROGRESS} attachment and is
+ * saved with the vanilla player file, so only online players can be read.
+ */
+public class AttachmentProgressStore implements ProgressStore {
+    private final MinecraftServer server;
+
+    public AttachmentProgressStore(MinecraftServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public Optional<PlayerProgressData> get(UUID player) {
+        ServerPlayer serverPlayer = server.getPlayerList().getPlayer(player);
+        return serverPlayer != null ? Optional.of(serverPlayer.getData(ModAttachments.PLAYER_PROGRESS)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<PlayerProgressData> load(UUID player) {
+        // The attachment is the storage, vanilla has loaded it already
+        return Optional.empty();
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerProgressData>> getAsync(UUID player) {
+        return CompletableFuture.completedFuture(get(player));
+    }
+
+    @Override
+    public void save(UUID player, PlayerProgressData data) {
+        ServerPlayer serverPlayer = server.getPlayerList().getPlayer(player);
+        if (serverPlayer != null) {
+            PlayerProgressData attached = serverPlayer.getData(ModAttachments.PLAYER_PROGRESS);
+            if (attached != data) {
+                attached.copyFrom(data);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Written by vanilla along with the player file
+    }
+
+    @Override
+    public void close() {
+    }
+}
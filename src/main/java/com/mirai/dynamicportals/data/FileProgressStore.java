@@ -0,0 +1,177 @@
+package com.mirai.dynamicportals.data;
+
+import com.mirai.dynamicportals.DynamicPortals;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores each player's progress in its own compressed NBT file, {@code <uuid>.dat}, under a directory
+ * that may be shared by several worlds.
+ * <p>
+ * Reads go through an access-ordered LRU cache; online players are always served from their live
+ * attachment. Saves snapshot the progress tag on the server thread and hand it to a single writer
+ * thread. Repeated saves of a player that are still queued collapse into one write of the latest tag.
+ */
+public class FileProgressStore implements ProgressStore {
+    private static final int MAX_CACHED_PLAYERS = 256;
+
+    private final MinecraftServer server;
+    private final Path directory;
+    private final ExecutorService writer;
+    // Offline players' progress, least recently used first
+    private final Map<UUID, PlayerProgressData> cache = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, PlayerProgressData> eldest) {
+            return size() > MAX_CACHED_PLAYERS;
+        }
+    };
+    // Latest tag per player not yet on disk, shared with the writer thread
+    private final Map<UUID, CompoundTag> pendingWrites = new ConcurrentHashMap<>();
+
+    public FileProgressStore(MinecraftServer server, Path directory) {
+        this.server = server;
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DynamicPortals Progress Store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Optional<PlayerProgressData> get(UUID player) {
+        PlayerProgressData data = cachedOrOnline(player);
+        if (data != null) {
+            return Optional.of(data);
+        }
+        return Optional.ofNullable(decode(player, read(player)));
+    }
+
+    // Skips the cache too: another server sharing the directory may have written the file since
+    @Override
+    public Optional<PlayerProgressData> load(UUID player) {
+        return Optional.ofNullable(decode(player, read(player)));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerProgressData>> getAsync(UUID player) {
+        PlayerProgressData data = cachedOrOnline(player);
+        if (data != null) {
+            return CompletableFuture.completedFuture(Optional.of(data));
+        }
+        // Read on the writer thread so it sees every save queued before it
+        return CompletableFuture.supplyAsync(() -> read(player), writer)
+                .thenApplyAsync(tag -> {
+                    // A save may have filled the cache while the read was in flight
+                    PlayerProgressData current = cachedOrOnline(player);
+                    return Optional.ofNullable(current != null ? current : decode(player, tag));
+                }, server);
+    }
+
+    @Override
+    public void save(UUID player, PlayerProgressData data) {
+        // A copy, the live attachment is replaced when the player respawns
+        PlayerProgressData copy = new PlayerProgressData();
+        copy.copyFrom(data);
+        cache.put(player, copy);
+        CompoundTag tag = data.serializeNBT(server.registryAccess());
+        if (pendingWrites.put(player, tag) == null) {
+            writer.execute(() -> write(player));
+        }
+    }
+
+    @Override
+    public void flush() {
+        CompletableFuture.runAsync(() -> {
+        }, writer).join();
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                DynamicPortals.LOGGER.warn("Timed out writing player progress to {}", directory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cache.clear();
+    }
+
+    private PlayerProgressData cachedOrOnline(UUID player) {
+        ServerPlayer serverPlayer = server.getPlayerList().getPlayer(player);
+        if (serverPlayer != null) {
+            return serverPlayer.getData(ModAttachments.PLAYER_PROGRESS);
+        }
+        return cache.get(player);
+    }
+
+    private PlayerProgressData decode(UUID player, CompoundTag tag) {
+        if (tag == null) {
+            return null;
+        }
+        PlayerProgressData data = new PlayerProgressData();
+        data.deserializeNBT(server.registryAccess(), tag);
+        cache.put(player, data);
+        return data;
+    }
+
+    // Pending tags win over the file, they are newer
+    private CompoundTag read(UUID player) {
+        CompoundTag pending = pendingWrites.get(player);
+        if (pending != null) {
+            return pending.copy();
+        }
+        Path file = fileFor(player);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap());
+        } catch (IOException e) {
+            DynamicPortals.LOGGER.error("Failed to read player progress {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(UUID player) {
+        Path file = fileFor(player);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CompoundTag tag;
+        // The tag stays visible to readers until it is on disk; go again if a newer save replaced it meanwhile
+        while ((tag = pendingWrites.get(player)) != null) {
+            try {
+                Files.createDirectories(directory);
+                NbtIo.writeCompressed(tag, temp);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                DynamicPortals.LOGGER.error("Failed to write player progress {}", file, e);
+            }
+            if (pendingWrites.remove(player, tag)) {
+                break;
+            }
+        }
+    }
+
+    private Path fileFor(UUID player) {
+        return directory.resolve(player + ".dat");
+    }
+}
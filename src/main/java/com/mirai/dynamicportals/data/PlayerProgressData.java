@@ -1,56 +1,455 @@
 package com.mirai.dynamicportals.data;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.api.RequirementSlots;
+import com.mirai.dynamicportals.util.BitSets;
 import com.mirai.dynamicportals.util.ModConstants;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
 import net.neoforged.neoforge.common.util.INBTSerializable;
 
 import java.util.*;
 
 public class PlayerProgressData implements INBTSerializable<CompoundTag> {
-    private final Map<EntityType<?>, Boolean> killedMobs = new HashMap<>();
-    private final Set<net.minecraft.world.item.Item> obtainedItems = new HashSet<>();
+    private static final int KIND_MOB = 0;
+    private static final int KIND_ITEM = 1;
+    private static final int KIND_ACHIEVEMENT = 2;
+    private static final int KIND_MOB_IN_PROGRESS = 3;
+    private static final int KINDS_PER_WORD = 32;
+
+    // Killed mobs, obtained items and completed tag entries, one bit per RequirementSlots slot
+    private long[] progress = BitSets.EMPTY;
+    // Kills so far per slot for targets with a threshold, saturating at the highest threshold any requirement asks
+    private int[] killCounts = new int[0];
     private int deathCount = 0;
     private final Set<ResourceLocation> unlockedAchievements = new HashSet<>();
     private int dataVersion = ModConstants.CURRENT_DATA_VERSION;
 
+    // Bumped on every change; lets serialization and sync skip work when nothing moved
+    private int progressVersion = 0;
+    private CompoundTag cachedTag;
+    private int cachedTagVersion = -1;
+
+    // Targets still missing per requirement ordinal, only valid against countersIndex
+    private RequirementIndex countersIndex;
+    private int[] remainingKills = new int[0];
+    private int[] remainingItems = new int[0];
+
+    // Open portals as a bitset over requirement ordinals, valid for accessIndex at accessVersion
+    private RequirementIndex accessIndex;
+    private int accessVersion = -1;
+    private long[] accessGranted = BitSets.EMPTY;
+
+    // Reused copy of the progress bitset for requirements that need fewer kills of a target than another
+    private long[] requirementProgress = BitSets.EMPTY;
+
+    // Sequence number of the last journaled change, persisted so replay can skip what the save already holds
+    private long journalSeq = 0;
+    private ProgressListener listener;
+    // Collects changes for the next client delta, independent of the journal
+    private ProgressListener syncListener;
+
     public PlayerProgressData() {
     }
 
+    /**
+     * Sets the listener that receives every later change, or removes it when null
+     */
+    public void setListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the listener that collects changes for client sync, or removes it when null.
+     * It is passed the journal's sequence number, which does not advance while no journal is attached.
+     */
+    public void setSyncListener(ProgressListener syncListener) {
+        this.syncListener = syncListener;
+    }
+
+    public long getJournalSeq() {
+        return journalSeq;
+    }
+
+    private void journal(int op, String id, int value) {
+        if (listener != null) {
+            listener.onProgressChanged(++journalSeq, op, id, value);
+        }
+        if (syncListener != null) {
+            syncListener.onProgressChanged(journalSeq, op, id, value);
+        }
+    }
+
     // Mob kill tracking
     public void markMobKilled(EntityType<?> entityType) {
-        killedMobs.put(entityType, true);
+        markSlot(RequirementSlots.getOrCreateEntitySlot(entityType));
+    }
+
+    /**
+     * Counts kills toward an entity type's threshold, and toward every required tag it belongs to,
+     * marking each entry done once its threshold is reached
+     */
+    public void recordKills(EntityType<?> entityType, int kills) {
+        // Types no requirement asks for have no slot in the index and are not tracked
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        recordSlotKills(index, index.entitySlot(entityType), kills);
+        for (int tagSlot : index.entityTagSlots(entityType)) {
+            recordSlotKills(index, tagSlot, kills);
+        }
+    }
+
+    private void recordSlotKills(RequirementIndex index, int slot, int kills) {
+        if (slot < 0 || BitSets.get(progress, slot)) {
+            return;
+        }
+
+        int threshold = index.killThreshold(slot);
+        int count = Math.min(threshold, getKillCount(slot) + kills);
+        if (count >= threshold) {
+            markSlot(slot);
+        }
+        storeKillCount(slot, count);
+    }
+
+    /**
+     * @return true if a kill of this entity type would still count toward an entry not yet done
+     */
+    public boolean needsKills(EntityType<?> entityType) {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        int slot = index.entitySlot(entityType);
+        if (slot >= 0 && !BitSets.get(progress, slot)) {
+            return true;
+        }
+        for (int tagSlot : index.entityTagSlots(entityType)) {
+            if (!BitSets.get(progress, tagSlot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restores a kill count, e.g. from disk or a sync packet
+     */
+    public void setKillCount(EntityType<?> entityType, int count) {
+        setSlotKillCount(RequirementSlots.getOrCreateEntitySlot(entityType), count);
+    }
+
+    /**
+     * Restores the shared kill count of a mob tag entry
+     */
+    public void setKillCount(TagKey<EntityType<?>> tag, int count) {
+        setSlotKillCount(RequirementSlots.getOrCreateTagSlot(tag), count);
+    }
+
+    private void setSlotKillCount(int slot, int count) {
+        if (slot < 0) {
+            return;
+        }
+        if (count >= PortalRequirementRegistry.getInstance().getIndex().killThreshold(slot)) {
+            markSlot(slot);
+        }
+        storeKillCount(slot, count);
+    }
+
+    /**
+     * @return Kills counted toward an entity type's threshold; a killed type reports at least its threshold
+     */
+    public int getKillCount(EntityType<?> entityType) {
+        return getReportedKillCount(RequirementSlots.entitySlot(entityType));
+    }
+
+    /**
+     * @return Kills of any members counted toward a mob tag entry; a completed entry reports at least its threshold
+     */
+    public int getKillCount(TagKey<EntityType<?>> tag) {
+        return getReportedKillCount(RequirementSlots.tagSlot(tag));
+    }
+
+    private int getReportedKillCount(int slot) {
+        if (BitSets.get(progress, slot)) {
+            return Math.max(getKillCount(slot), PortalRequirementRegistry.getInstance().getIndex().killThreshold(slot));
+        }
+        return getKillCount(slot);
+    }
+
+    /**
+     * @return Kill counts of mobs that have been hit at least once but not reached their threshold
+     */
+    public Map<EntityType<?>, Integer> getPartialKillCounts() {
+        Map<EntityType<?>, Integer> partial = new HashMap<>();
+        // The counts array grows ahead of the slots handed out
+        for (int slot = 0, n = Math.min(killCounts.length, RequirementSlots.size()); slot < n; slot++) {
+            if (killCounts[slot] == 0 || BitSets.get(progress, slot)) {
+                continue;
+            }
+            EntityType<?> entityType = RequirementSlots.entityAt(slot);
+            if (entityType != null) {
+                partial.put(entityType, killCounts[slot]);
+            }
+        }
+        return Collections.unmodifiableMap(partial);
+    }
+
+    /**
+     * @return Kill counts of mob tag entries with any kills; completed entries report their threshold
+     */
+    @SuppressWarnings("unchecked")
+    public Map<TagKey<EntityType<?>>, Integer> getMobTagKillCounts() {
+        Map<TagKey<EntityType<?>>, Integer> counts = new HashMap<>();
+        for (int slot = 0; slot < RequirementSlots.size(); slot++) {
+            TagKey<?> tag = RequirementSlots.tagAt(slot);
+            if (tag != null && tag.isFor(Registries.ENTITY_TYPE) && (BitSets.get(progress, slot) || getKillCount(slot) > 0)) {
+                counts.put((TagKey<EntityType<?>>) tag, getReportedKillCount(slot));
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public boolean hasTagBeenCompleted(TagKey<?> tag) {
+        return BitSets.get(progress, RequirementSlots.tagSlot(tag));
+    }
+
+    private int getKillCount(int slot) {
+        return slot >= 0 && slot < killCounts.length ? killCounts[slot] : 0;
+    }
+
+    private void storeKillCount(int slot, int count) {
+        if (slot >= killCounts.length) {
+            killCounts = Arrays.copyOf(killCounts, Math.max(slot + 1, killCounts.length * 2));
+        }
+        if (killCounts[slot] != count) {
+            killCounts[slot] = count;
+            progressVersion++;
+            journal(ProgressListener.OP_KILL_COUNT, RequirementSlots.idAt(slot), count);
+            // A requirement asking fewer kills than the slot threshold may have just been met
+            if (countersIndex != null && countersIndex.hasSplitThreshold(slot)) {
+                countersIndex = null;
+            }
+        }
     }
 
     public boolean hasMobBeenKilled(EntityType<?> entityType) {
-        return killedMobs.getOrDefault(entityType, false);
+        return BitSets.get(progress, RequirementSlots.entitySlot(entityType));
+    }
+
+    /**
+     * @param mask Bitset over {@link RequirementSlots} slots
+     * @return true if every slot in the mask is complete
+     */
+    public boolean hasAll(long[] mask) {
+        return BitSets.containsAll(progress, mask);
     }
 
+    /**
+     * @return Snapshot of the killed mobs, built from the progress bitset
+     */
     public Map<EntityType<?>, Boolean> getKilledMobs() {
+        Map<EntityType<?>, Boolean> killedMobs = new HashMap<>();
+        for (int slot = BitSets.nextSetBit(progress, 0); slot >= 0; slot = BitSets.nextSetBit(progress, slot + 1)) {
+            EntityType<?> entityType = RequirementSlots.entityAt(slot);
+            if (entityType != null) {
+                killedMobs.put(entityType, true);
+            }
+        }
         return Collections.unmodifiableMap(killedMobs);
     }
 
     // Item tracking
     public void markItemObtained(net.minecraft.world.item.Item item) {
-        obtainedItems.add(item);
+        markSlot(RequirementSlots.getOrCreateItemSlot(item));
+    }
+
+    public void markItemTagObtained(TagKey<Item> tag) {
+        markSlot(RequirementSlots.getOrCreateTagSlot(tag));
+    }
+
+    /**
+     * Marks an item obtained along with every required item tag it belongs to
+     */
+    public void recordItemObtained(Item item) {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        markSlot(index.itemSlot(item));
+        for (int tagSlot : index.itemTagSlots(item)) {
+            markSlot(tagSlot);
+        }
+    }
+
+    /**
+     * @return true if obtaining this item would still count toward an entry not yet done
+     */
+    public boolean needsItem(Item item) {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        int slot = index.itemSlot(item);
+        if (slot >= 0 && !BitSets.get(progress, slot)) {
+            return true;
+        }
+        for (int tagSlot : index.itemTagSlots(item)) {
+            if (!BitSets.get(progress, tagSlot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markSlot(int slot) {
+        if (slot >= 0 && !BitSets.get(progress, slot)) {
+            progress = BitSets.set(progress, slot);
+            progressVersion++;
+            boolean item = RequirementSlots.isItemSlot(slot);
+            journal(item ? ProgressListener.OP_MARK_ITEM : ProgressListener.OP_MARK_MOB, RequirementSlots.idAt(slot), 0);
+
+            if (countersIndex != null && countersIndex.hasSplitThreshold(slot)) {
+                // Some requirements may have counted this target already, recount on the next read
+                countersIndex = null;
+            } else if (countersIndex != null) {
+                int[] remaining = item ? remainingItems : remainingKills;
+                for (int ordinal : countersIndex.requirementsForSlot(slot)) {
+                    // Targets only read by a condition are not counted
+                    if (BitSets.get(item ? countersIndex.itemMask(ordinal) : countersIndex.killMask(ordinal), slot)) {
+                        remaining[ordinal]--;
+                    }
+                }
+            }
+        }
+    }
+
+    // Requirement completion, evaluated by the requirement's compiled program
+    public boolean isRequirementComplete(ResourceLocation dimension) {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        int ordinal = index.ordinalOf(dimension);
+        return ordinal >= 0 && index.isSatisfied(ordinal, progressFor(index, ordinal));
+    }
+
+    /**
+     * @return Mobs and bosses still to kill for a dimension's requirement, or -1 if it has none
+     */
+    public int getRemainingKills(ResourceLocation dimension) {
+        int ordinal = counters().ordinalOf(dimension);
+        return ordinal >= 0 ? remainingKills[ordinal] : -1;
+    }
+
+    /**
+     * @return Items still to obtain for a dimension's requirement, or -1 if it has none
+     */
+    public int getRemainingItems(ResourceLocation dimension) {
+        int ordinal = counters().ordinalOf(dimension);
+        return ordinal >= 0 ? remainingItems[ordinal] : -1;
+    }
+
+    public int getCompletedTargets(ResourceLocation dimension) {
+        RequirementIndex index = counters();
+        int ordinal = index.ordinalOf(dimension);
+        if (ordinal < 0) {
+            return 0;
+        }
+        return index.killTargetCount(ordinal) - remainingKills[ordinal]
+                + index.itemTargetCount(ordinal) - remainingItems[ordinal];
+    }
+
+    public int getTotalTargets(ResourceLocation dimension) {
+        RequirementIndex index = counters();
+        int ordinal = index.ordinalOf(dimension);
+        return ordinal >= 0 ? index.killTargetCount(ordinal) + index.itemTargetCount(ordinal) : 0;
+    }
+
+    public float getRequirementProgress(ResourceLocation dimension) {
+        if (isRequirementComplete(dimension)) {
+            return 1.0F;
+        }
+        int total = getTotalTargets(dimension);
+        // Listed targets may all be done while a condition still is not
+        return total == 0 ? 0.0F : Math.min((float) getCompletedTargets(dimension) / total, 0.99F);
+    }
+
+    /**
+     * @return the progress bitset as one requirement sees it, valid until the next call
+     */
+    private long[] progressFor(RequirementIndex index, int ordinal) {
+        int words = index.lowerThresholdWords(ordinal);
+        if (words == 0) {
+            return progress;
+        }
+        words = Math.max(words, progress.length);
+        if (requirementProgress.length < words) {
+            requirementProgress = new long[words];
+        }
+        System.arraycopy(progress, 0, requirementProgress, 0, progress.length);
+        Arrays.fill(requirementProgress, progress.length, requirementProgress.length, 0L);
+        index.applyLowerThresholds(ordinal, killCounts, requirementProgress);
+        return requirementProgress;
+    }
+
+    private RequirementIndex counters() {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        if (index != countersIndex) {
+            rebuildCounters(index);
+        }
+        return index;
+    }
+
+    private void rebuildCounters(RequirementIndex index) {
+        int[] kills = new int[index.size()];
+        int[] items = new int[index.size()];
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            long[] met = progressFor(index, ordinal);
+            kills[ordinal] = index.killTargetCount(ordinal) - BitSets.intersectionCount(met, index.killMask(ordinal));
+            items[ordinal] = index.itemTargetCount(ordinal) - BitSets.intersectionCount(progress, index.itemMask(ordinal));
+        }
+        remainingKills = kills;
+        remainingItems = items;
+        countersIndex = index;
     }
 
     public boolean hasItemBeenObtained(net.minecraft.world.item.Item item) {
-        return obtainedItems.contains(item);
+        return BitSets.get(progress, RequirementSlots.itemSlot(item));
     }
 
+    /**
+     * @return Snapshot of the obtained items, built from the progress bitset
+     */
     public Set<net.minecraft.world.item.Item> getObtainedItems() {
+        Set<net.minecraft.world.item.Item> obtainedItems = new HashSet<>();
+        for (int slot = BitSets.nextSetBit(progress, 0); slot >= 0; slot = BitSets.nextSetBit(progress, slot + 1)) {
+            net.minecraft.world.item.Item item = RequirementSlots.itemAt(slot);
+            if (item != null) {
+                obtainedItems.add(item);
+            }
+        }
         return Collections.unmodifiableSet(obtainedItems);
     }
 
+    /**
+     * @return Snapshot of the item tag entries completed so far
+     */
+    @SuppressWarnings("unchecked")
+    public Set<TagKey<Item>> getObtainedItemTags() {
+        Set<TagKey<Item>> obtainedTags = new HashSet<>();
+        for (int slot = BitSets.nextSetBit(progress, 0); slot >= 0; slot = BitSets.nextSetBit(progress, slot + 1)) {
+            TagKey<?> tag = RequirementSlots.tagAt(slot);
+            if (tag != null && tag.isFor(Registries.ITEM)) {
+                obtainedTags.add((TagKey<Item>) tag);
+            }
+        }
+        return Collections.unmodifiableSet(obtainedTags);
+    }
+
     // Death counter management
     public void incrementDeathCount() {
         deathCount++;
+        progressVersion++;
+        journal(ProgressListener.OP_DEATH_COUNT, null, deathCount);
     }
 
     public int getDeathCount() {
@@ -59,6 +458,8 @@ public class PlayerProgressData implements INBTSerializable<CompoundTag> {
 
     public void resetDeathCount() {
         deathCount = 0;
+        progressVersion++;
+        journal(ProgressListener.OP_DEATH_COUNT, null, deathCount);
     }
 
     public boolean shouldResetProgress() {
@@ -67,7 +468,10 @@ public class PlayerProgressData implements INBTSerializable<CompoundTag> {
 
     // Achievement tracking
     public void unlockAchievement(ResourceLocation achievement) {
-        unlockedAchievements.add(achievement);
+        if (unlockedAchievements.add(achievement)) {
+            progressVersion++;
+            journal(ProgressListener.OP_UNLOCK_ACHIEVEMENT, RequirementSlots.compactId(achievement), 0);
+        }
     }
 
     public boolean isAchievementUnlocked(ResourceLocation achievement) {
@@ -80,135 +484,290 @@ public class PlayerProgressData implements INBTSerializable<CompoundTag> {
 
     // Progress reset (called when death threshold reached)
     public void resetProgress() {
-        // Only reset progress for achievements that haven't been unlocked
-        if (!isAchievementUnlocked(ModConstants.NETHER_ACCESS_ADVANCEMENT)) {
-            killedMobs.clear();
-            obtainedItems.clear();
-        }
-        if (!isAchievementUnlocked(ModConstants.END_ACCESS_ADVANCEMENT)) {
-            // Keep nether access progress but clear nether mobs
-            killedMobs.entrySet().removeIf(entry -> isNetherMob(entry.getKey()));
-            // Clear nether items
-            obtainedItems.removeIf(item -> {
-                ResourceLocation itemId = net.minecraft.core.registries.BuiltInRegistries.ITEM.getKey(item);
-                return itemId != null && itemId.toString().contains("netherite");
-            });
+        // Only reset progress for tiers that aren't open; a tier behind a locked prerequisite is not open either
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        long[] open = accessMask(index).clone();
+        long[] lockedSlots = BitSets.EMPTY;
+        long[] openSlots = BitSets.EMPTY;
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            if (BitSets.get(open, ordinal)) {
+                openSlots = BitSets.or(openSlots, index.resetMask(ordinal));
+            } else {
+                lockedSlots = BitSets.or(lockedSlots, index.resetMask(ordinal));
+            }
+        }
+        // Targets an open tier shares with a locked one are kept
+        long[] mask = lockedSlots.clone();
+        BitSets.andNot(mask, openSlots);
+        BitSets.andNot(progress, mask);
+        for (int slot = BitSets.nextSetBit(mask, 0); slot >= 0 && slot < killCounts.length; slot = BitSets.nextSetBit(mask, slot + 1)) {
+            killCounts[slot] = 0;
         }
         deathCount = 0;
+        progressVersion++;
+        rebuildCounters(index);
+        journal(ProgressListener.OP_RESET, null, 0);
     }
 
-    // Helper to determine if mob is from nether progression
-    private boolean isNetherMob(EntityType<?> type) {
-        return type == EntityType.GHAST ||
-               type == EntityType.BLAZE ||
-               type == EntityType.WITHER_SKELETON ||
-               type == EntityType.PIGLIN ||
-               type == EntityType.PIGLIN_BRUTE ||
-               type == EntityType.HOGLIN ||
-               type == EntityType.WARDEN ||
-               type == EntityType.WITHER;
+    /**
+     * Whether the portal to a requirement's dimension is open: every prerequisite is open, and its
+     * advancement has been granted or, for requirements without one, the requirement is satisfied.
+     * Cached until progress or the index changes.
+     */
+    public boolean canAccess(RequirementIndex index, int ordinal) {
+        return BitSets.get(accessMask(index), ordinal);
+    }
+
+    private long[] accessMask(RequirementIndex index) {
+        if (index != accessIndex || accessVersion != progressVersion) {
+            int words = (index.size() + Long.SIZE - 1) / Long.SIZE;
+            if (accessGranted.length != words) {
+                accessGranted = new long[words];
+            } else {
+                Arrays.fill(accessGranted, 0L);
+            }
+            // Ordinals are topologically ordered, so prerequisites are decided before their dependents
+            for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+                ResourceLocation advancement = index.requirement(ordinal).getRequiredAdvancement();
+                boolean unlocked = advancement != null ? isAchievementUnlocked(advancement)
+                        : index.isSatisfied(ordinal, progressFor(index, ordinal));
+                if (unlocked && BitSets.containsAll(accessGranted, index.ancestors(ordinal))) {
+                    BitSets.set(accessGranted, ordinal);
+                }
+            }
+            accessIndex = index;
+            accessVersion = progressVersion;
+        }
+        return accessGranted;
+    }
+
+    /**
+     * Applies a journaled change on top of the loaded progress, without reporting it to the listeners
+     */
+    void replay(long seq, int op, String id, int value) {
+        ProgressListener current = listener;
+        ProgressListener currentSync = syncListener;
+        listener = null;
+        syncListener = null;
+        applyChange(op, id, value);
+        journalSeq = seq;
+        // The cached tag holds the old sequence, even when the change itself was a no-op
+        cachedTag = null;
+        listener = current;
+        syncListener = currentSync;
+    }
+
+    /**
+     * Applies a change as reported to a {@link ProgressListener}
+     */
+    public void applyChange(int op, String id, int value) {
+        switch (op) {
+            case ProgressListener.OP_MARK_MOB -> markSlot(slotForId(false, id));
+            case ProgressListener.OP_MARK_ITEM -> markSlot(slotForId(true, id));
+            case ProgressListener.OP_UNLOCK_ACHIEVEMENT -> {
+                ResourceLocation target = id != null ? ResourceLocation.tryParse(id) : null;
+                if (target != null) {
+                    unlockAchievement(target);
+                }
+            }
+            case ProgressListener.OP_KILL_COUNT -> setSlotKillCount(slotForId(false, id), value);
+            case ProgressListener.OP_DEATH_COUNT -> {
+                deathCount = value;
+                progressVersion++;
+            }
+            case ProgressListener.OP_RESET -> resetProgress();
+            default -> {
+            }
+        }
+    }
+
+    // Palette and journal ids are registry ids, or tag ids behind RequirementSlots.TAG_PREFIX
+    private static int slotForId(boolean item, String id) {
+        if (id == null) {
+            return -1;
+        }
+        boolean tag = id.startsWith(RequirementSlots.TAG_PREFIX);
+        ResourceLocation location = ResourceLocation.tryParse(tag ? id.substring(RequirementSlots.TAG_PREFIX.length()) : id);
+        if (location == null) {
+            return -1;
+        }
+        if (tag) {
+            return RequirementSlots.getOrCreateTagSlot(TagKey.create(item ? Registries.ITEM : Registries.ENTITY_TYPE, location));
+        }
+        return item
+                ? BuiltInRegistries.ITEM.getOptional(location).map(RequirementSlots::getOrCreateItemSlot).orElse(-1)
+                : BuiltInRegistries.ENTITY_TYPE.getOptional(location).map(RequirementSlots::getOrCreateEntitySlot).orElse(-1);
+    }
+
+    /**
+     * @return A counter that changes whenever any progress, death count or achievement changes
+     */
+    public int getProgressVersion() {
+        return progressVersion;
     }
 
     // NBT Serialization
     @Override
     public CompoundTag serializeNBT(HolderLookup.Provider provider) {
+        // Progress rarely changes past the early game, most saves reuse the last tag
+        if (cachedTag == null || cachedTagVersion != progressVersion) {
+            cachedTag = writeNBT();
+            cachedTagVersion = progressVersion;
+        }
+        return cachedTag.copy();
+    }
+
+    private CompoundTag writeNBT() {
         CompoundTag nbt = new CompoundTag();
         
         nbt.putInt(ModConstants.NBT_DATA_VERSION, dataVersion);
         nbt.putInt(ModConstants.NBT_DEATH_COUNT, deathCount);
-
-        // Save killed mobs
-        CompoundTag mobsTag = new CompoundTag();
-        for (Map.Entry<EntityType<?>, Boolean> entry : killedMobs.entrySet()) {
-            ResourceLocation mobId = EntityType.getKey(entry.getKey());
-            if (mobId != null) {
-                mobsTag.putBoolean(mobId.toString(), entry.getValue());
-            }
+        if (journalSeq > 0) {
+            nbt.putLong(ModConstants.NBT_JOURNAL_SEQ, journalSeq);
         }
-        nbt.put(ModConstants.NBT_KILLED_MOBS, mobsTag);
 
-        // Save obtained items
-        ListTag itemsTag = new ListTag();
-        for (net.minecraft.world.item.Item item : obtainedItems) {
-            ResourceLocation itemId = net.minecraft.core.registries.BuiltInRegistries.ITEM.getKey(item);
-            if (itemId != null) {
-                itemsTag.add(StringTag.valueOf(itemId.toString()));
+        // Killed mobs, obtained items, achievements and mobs short of their kill count share one id palette
+        IntArrayList partialCounts = new IntArrayList();
+        for (int slot = 0; slot < killCounts.length; slot++) {
+            if (killCounts[slot] > 0 && !BitSets.get(progress, slot)) {
+                partialCounts.add(slot);
             }
         }
-        nbt.put(ModConstants.NBT_OBTAINED_ITEMS, itemsTag);
-
-        // Save unlocked achievements
-        ListTag achievementsTag = new ListTag();
+        int entries = BitSets.cardinality(progress) + unlockedAchievements.size() + partialCounts.size();
+        ListTag palette = new ListTag();
+        long[] kinds = new long[(entries + KINDS_PER_WORD - 1) / KINDS_PER_WORD];
+        for (int slot = BitSets.nextSetBit(progress, 0); slot >= 0; slot = BitSets.nextSetBit(progress, slot + 1)) {
+            int kind = RequirementSlots.isItemSlot(slot) ? KIND_ITEM : KIND_MOB;
+            setKind(kinds, palette.size(), kind);
+            palette.add(StringTag.valueOf(RequirementSlots.idAt(slot)));
+        }
         for (ResourceLocation achievement : unlockedAchievements) {
-            achievementsTag.add(StringTag.valueOf(achievement.toString()));
+            setKind(kinds, palette.size(), KIND_ACHIEVEMENT);
+            palette.add(StringTag.valueOf(RequirementSlots.compactId(achievement)));
+        }
+        for (int i = 0; i < partialCounts.size(); i++) {
+            int slot = partialCounts.getInt(i);
+            setKind(kinds, palette.size(), KIND_MOB_IN_PROGRESS);
+            palette.add(StringTag.valueOf(RequirementSlots.idAt(slot)));
+            // Reuse the list: the slot is no longer needed once its id is in the palette
+            partialCounts.set(i, killCounts[slot]);
+        }
+        nbt.put(ModConstants.NBT_PALETTE, palette);
+        nbt.putLongArray(ModConstants.NBT_PALETTE_KINDS, kinds);
+        if (!partialCounts.isEmpty()) {
+            nbt.putIntArray(ModConstants.NBT_KILL_COUNTS, partialCounts.toIntArray());
         }
-        nbt.put(ModConstants.NBT_UNLOCKED_ACHIEVEMENTS, achievementsTag);
 
         return nbt;
     }
 
     @Override
     public void deserializeNBT(HolderLookup.Provider provider, CompoundTag nbt) {
+        // Loading restores saved state, which is not a change to journal or sync
+        ProgressListener current = listener;
+        ProgressListener currentSync = syncListener;
+        listener = null;
+        syncListener = null;
+
         // Load data version for potential migrations
         dataVersion = nbt.getInt(ModConstants.NBT_DATA_VERSION);
         
         // Migrate data if needed
         if (dataVersion < ModConstants.CURRENT_DATA_VERSION) {
             migrateData(nbt, dataVersion);
+            dataVersion = ModConstants.CURRENT_DATA_VERSION;
         }
 
         deathCount = nbt.getInt(ModConstants.NBT_DEATH_COUNT);
+        journalSeq = nbt.getLong(ModConstants.NBT_JOURNAL_SEQ);
 
-        // Load killed mobs
-        killedMobs.clear();
-        if (nbt.contains(ModConstants.NBT_KILLED_MOBS)) {
-            CompoundTag mobsTag = nbt.getCompound(ModConstants.NBT_KILLED_MOBS);
-            for (String key : mobsTag.getAllKeys()) {
-                ResourceLocation mobId = ResourceLocation.parse(key);
-                Optional<EntityType<?>> entityType = EntityType.byString(mobId.toString());
-                entityType.ifPresent(type -> killedMobs.put(type, mobsTag.getBoolean(key)));
+        progress = BitSets.EMPTY;
+        killCounts = new int[0];
+        unlockedAchievements.clear();
+        ListTag palette = nbt.getList(ModConstants.NBT_PALETTE, Tag.TAG_STRING);
+        long[] kinds = nbt.getLongArray(ModConstants.NBT_PALETTE_KINDS);
+        int[] partialCounts = nbt.getIntArray(ModConstants.NBT_KILL_COUNTS);
+        int partialIndex = 0;
+        for (int i = 0; i < palette.size(); i++) {
+            String id = palette.getString(i);
+            switch (getKind(kinds, i)) {
+                case KIND_MOB -> markSlot(slotForId(false, id));
+                case KIND_ITEM -> markSlot(slotForId(true, id));
+                case KIND_ACHIEVEMENT -> {
+                    ResourceLocation achievement = ResourceLocation.tryParse(id);
+                    if (achievement != null) {
+                        unlockedAchievements.add(achievement);
+                    }
+                }
+                case KIND_MOB_IN_PROGRESS -> {
+                    int count = partialIndex < partialCounts.length ? partialCounts[partialIndex] : 0;
+                    partialIndex++;
+                    setSlotKillCount(slotForId(false, id), count);
+                }
+                default -> {
+                }
             }
         }
+        listener = current;
+        syncListener = currentSync;
+        progressVersion++;
+        rebuildCounters(PortalRequirementRegistry.getInstance().getIndex());
+    }
 
-        // Load obtained items
-        obtainedItems.clear();
-        if (nbt.contains(ModConstants.NBT_OBTAINED_ITEMS)) {
-            ListTag itemsTag = nbt.getList(ModConstants.NBT_OBTAINED_ITEMS, Tag.TAG_STRING);
-            for (Tag tag : itemsTag) {
-                ResourceLocation itemId = ResourceLocation.parse(tag.getAsString());
-                net.minecraft.world.item.Item item = net.minecraft.core.registries.BuiltInRegistries.ITEM.get(itemId);
-                if (item != null) {
-                    obtainedItems.add(item);
+    private void migrateData(CompoundTag nbt, int oldVersion) {
+        if (oldVersion < 2) {
+            // v1 -> v2: fold the per-kind collections into the palette layout
+            ListTag palette = new ListTag();
+            List<Integer> paletteKinds = new ArrayList<>();
+
+            CompoundTag mobsTag = nbt.getCompound(ModConstants.NBT_KILLED_MOBS);
+            for (String key : mobsTag.getAllKeys()) {
+                if (mobsTag.getBoolean(key)) {
+                    palette.add(StringTag.valueOf(key));
+                    paletteKinds.add(KIND_MOB);
                 }
             }
-        }
+            for (Tag tag : nbt.getList(ModConstants.NBT_OBTAINED_ITEMS, Tag.TAG_STRING)) {
+                palette.add(StringTag.valueOf(tag.getAsString()));
+                paletteKinds.add(KIND_ITEM);
+            }
+            for (Tag tag : nbt.getList(ModConstants.NBT_UNLOCKED_ACHIEVEMENTS, Tag.TAG_STRING)) {
+                palette.add(StringTag.valueOf(tag.getAsString()));
+                paletteKinds.add(KIND_ACHIEVEMENT);
+            }
 
-        // Load unlocked achievements
-        unlockedAchievements.clear();
-        if (nbt.contains(ModConstants.NBT_UNLOCKED_ACHIEVEMENTS)) {
-            ListTag achievementsTag = nbt.getList(ModConstants.NBT_UNLOCKED_ACHIEVEMENTS, Tag.TAG_STRING);
-            for (Tag tag : achievementsTag) {
-                unlockedAchievements.add(ResourceLocation.parse(tag.getAsString()));
+            long[] kinds = new long[(palette.size() + KINDS_PER_WORD - 1) / KINDS_PER_WORD];
+            for (int i = 0; i < paletteKinds.size(); i++) {
+                setKind(kinds, i, paletteKinds.get(i));
             }
+
+            nbt.remove(ModConstants.NBT_KILLED_MOBS);
+            nbt.remove(ModConstants.NBT_OBTAINED_ITEMS);
+            nbt.remove(ModConstants.NBT_UNLOCKED_ACHIEVEMENTS);
+            nbt.put(ModConstants.NBT_PALETTE, palette);
+            nbt.putLongArray(ModConstants.NBT_PALETTE_KINDS, kinds);
         }
     }
 
-    private void migrateData(CompoundTag nbt, int oldVersion) {
-        // Future data migrations can be handled here
-        // For now, version 1 is the initial version
-        if (oldVersion < 1) {
-            // Migration logic for pre-v1 data
-        }
+    // Palette kinds are packed two bits per entry
+    private static void setKind(long[] kinds, int index, int kind) {
+        kinds[index / KINDS_PER_WORD] |= (long) kind << ((index % KINDS_PER_WORD) * 2);
+    }
+
+    private static int getKind(long[] kinds, int index) {
+        int word = index / KINDS_PER_WORD;
+        return word < kinds.length ? (int) (kinds[word] >>> ((index % KINDS_PER_WORD) * 2)) & 3 : -1;
     }
 
     public void copyFrom(PlayerProgressData other) {
-        this.killedMobs.clear();
-        this.killedMobs.putAll(other.killedMobs);
-        this.obtainedItems.clear();
-        this.obtainedItems.addAll(other.obtainedItems);
+        this.progress = other.progress.clone();
+        this.killCounts = other.killCounts.clone();
         this.deathCount = other.deathCount;
         this.unlockedAchievements.clear();
         this.unlockedAchievements.addAll(other.unlockedAchievements);
         this.dataVersion = other.dataVersion;
+        this.journalSeq = other.journalSeq;
+        this.progressVersion++;
+        rebuildCounters(PortalRequirementRegistry.getInstance().getIndex());
     }
 }
@@ -0,0 +1,89 @@
+package com.mirai.dynamicportals.data;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mirai.dynamicportals.DynamicPortals;
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.util.ModConstants;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.resources.FileToIdConverter;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.profiling.ProfilerFiller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Loads portal requirements from {@code data/<namespace>/dynamicportals/requirements/*.json}.
+ * <p>
+ * Files are read, validated and compiled into a {@link com.mirai.dynamicportals.api.RequirementIndex}
+ * in the prepare phase, off the server thread. Apply only swaps the compiled result into the registry.
+ */
+public class PortalRequirementLoader extends SimplePreparableReloadListener<PortalRequirementRegistry.DatapackRequirements> {
+    private static final FileToIdConverter LISTER = FileToIdConverter.json(ModConstants.MOD_ID + "/requirements");
+
+    @Override
+    protected PortalRequirementRegistry.DatapackRequirements prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+        Map<ResourceLocation, PortalRequirement> requirements = new HashMap<>();
+        Map<ResourceLocation, ResourceLocation> sources = new HashMap<>();
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+
+        // Walked in id order, so the hash only changes when the files do
+        for (Map.Entry<ResourceLocation, Resource> entry : new TreeMap<>(LISTER.listMatchingResources(resourceManager)).entrySet()) {
+            ResourceLocation file = entry.getKey();
+            ResourceLocation id = LISTER.fileToId(file);
+            try (InputStream stream = entry.getValue().open()) {
+                byte[] contents = stream.readAllBytes();
+                hasher.putString(id.toString(), StandardCharsets.UTF_8).putBytes(contents);
+
+                JsonElement json;
+                try (Reader reader = new InputStreamReader(new ByteArrayInputStream(contents), StandardCharsets.UTF_8)) {
+                    json = JsonParser.parseReader(reader);
+                }
+                PortalRequirement requirement = PortalRequirement.CODEC.parse(JsonOps.INSTANCE, json).getOrThrow();
+
+                ResourceLocation previous = sources.put(requirement.getDimension(), id);
+                if (previous != null) {
+                    DynamicPortals.LOGGER.warn("Portal requirement {} replaces {} for dimension {}", id, previous, requirement.getDimension());
+                }
+                requirements.put(requirement.getDimension(), requirement);
+            } catch (IOException | RuntimeException e) {
+                DynamicPortals.LOGGER.error("Couldn't load portal requirement {} from {}", id, file, e);
+            }
+        }
+
+        try {
+            return PortalRequirementRegistry.getInstance().compileDatapackRequirements(requirements, hasher.hash().asLong());
+        } catch (IllegalArgumentException e) {
+            DynamicPortals.LOGGER.error("Couldn't compile portal requirements, keeping the previous ones", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected void apply(PortalRequirementRegistry.DatapackRequirements compiled, ResourceManager resourceManager, ProfilerFiller profiler) {
+        if (compiled == null) {
+            return;
+        }
+        try {
+            PortalRequirementRegistry.getInstance().applyDatapackRequirements(compiled);
+            DynamicPortals.LOGGER.info("Loaded {} portal requirements", compiled.requirements().size());
+        } catch (IllegalArgumentException e) {
+            // API registrations made while compiling may have closed a prerequisite cycle
+            DynamicPortals.LOGGER.error("Couldn't apply portal requirements, keeping the previous ones", e);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.mirai.dynamicportals.data;
+
+import com.mirai.dynamicportals.DynamicPortals;
+import com.mirai.dynamicportals.util.ModConstants;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of player progress changes, so progress made between two player saves
+ * survives a crash.
+ * <p>
+ * Every change reported by {@link ProgressListener} is appended to a per-world file as a small
+ * binary record (player, sequence number, op, id symbol, value). Ids are written once per file as
+ * symbol definition records. A background thread drains the queue and forces each batch to disk
+ * with a single fsync. Records stay in the journal until the player's data has been saved with a
+ * sequence number at least as high, then the next world save compacts them away.
+ * <p>
+ * Frames are {@code [length][payload][crc32]}; a torn or corrupt tail left by a crash ends replay.
+ * Everything except the writer thread runs on the server thread.
+ */
+public final class ProgressJournal {
+    private static final byte RECORD_DEFINE = 0;
+    private static final byte RECORD_CHANGE = 1;
+    private static final int MAX_FRAME_LENGTH = 1 << 16;
+    private static final Object CLOSE = new Object();
+
+    private static ProgressJournal instance;
+
+    private final Path file;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // Changes not yet covered by a player save, per player in sequence order
+    private final Map<UUID, List<Entry>> pending = new HashMap<>();
+    // Symbols defined in the current journal file
+    private final Object2IntOpenHashMap<String> symbols = new Object2IntOpenHashMap<>();
+    // Set when a player save made some journaled changes redundant
+    private boolean dirty;
+
+    private record Entry(long seq, int op, String id, int value) {
+    }
+
+    // Replaces the whole journal file, queued so it stays ordered with appends
+    private record Rewrite(byte[] contents) {
+    }
+
+    private ProgressJournal(Path file) {
+        this.file = file;
+        this.writer = new Thread(this::runWriter, "DynamicPortals Progress Journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * @return the open journal, or null when journaling is disabled or no server is running
+     */
+    public static ProgressJournal get() {
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ModConstants.PROGRESS_JOURNAL_PROPERTY);
+    }
+
+    /**
+     * Loads the world's journal, keeping the changes it holds for replay, and starts the writer thread.
+     */
+    public static void open(MinecraftServer server) {
+        Path file = server.getWorldPath(LevelResource.ROOT).resolve(ModConstants.MOD_ID).resolve(ModConstants.PROGRESS_JOURNAL_FILE);
+        ProgressJournal journal = new ProgressJournal(file);
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file)) {
+                journal.load();
+            }
+        } catch (IOException e) {
+            DynamicPortals.LOGGER.error("Failed to read progress journal {}, journaling disabled", file, e);
+            return;
+        }
+        // Start from a file holding exactly the changes still pending
+        journal.compact(true);
+        journal.writer.start();
+        instance = journal;
+    }
+
+    /**
+     * Flushes everything queued and stops the writer thread.
+     */
+    public static void close() {
+        ProgressJournal journal = instance;
+        instance = null;
+        if (journal != null) {
+            journal.queue.add(CLOSE);
+            try {
+                journal.writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Replays the player's journaled changes newer than their loaded data, then journals every later change.
+     */
+    public void attach(ServerPlayer player) {
+        UUID uuid = player.getUUID();
+        PlayerProgressData data = player.getData(ModAttachments.PLAYER_PROGRESS);
+
+        List<Entry> entries = pending.get(uuid);
+        if (entries != null) {
+            long savedSeq = data.getJournalSeq();
+            int replayed = 0;
+            for (Entry entry : entries) {
+                if (entry.seq() > savedSeq) {
+                    data.replay(entry.seq(), entry.op(), entry.id(), entry.value());
+                    replayed++;
+                }
+            }
+            if (replayed > 0) {
+                DynamicPortals.LOGGER.info("Recovered {} progress changes for {} from the journal", replayed, player.getGameProfile().getName());
+            }
+            // Replayed changes stay pending until the player is saved again
+            prune(uuid, entries, savedSeq);
+        }
+
+        data.setListener((seq, op, id, value) -> append(uuid, seq, op, id, value));
+    }
+
+    /**
+     * Drops changes the player's saved data now holds. Called after the player file is written.
+     */
+    public void onPlayerSaved(ServerPlayer player) {
+        List<Entry> entries = pending.get(player.getUUID());
+        if (entries != null) {
+            prune(player.getUUID(), entries, player.getData(ModAttachments.PLAYER_PROGRESS).getJournalSeq());
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the changes no player save holds yet.
+     */
+    public void compact() {
+        compact(false);
+    }
+
+    private void compact(boolean force) {
+        if (!dirty && !force) {
+            return;
+        }
+        symbols.clear();
+        ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        for (Map.Entry<UUID, List<Entry>> player : pending.entrySet()) {
+            for (Entry entry : player.getValue()) {
+                contents.writeBytes(encode(player.getKey(), entry.seq(), entry.op(), entry.id(), entry.value()));
+            }
+        }
+        dirty = false;
+        if (writer.isAlive()) {
+            queue.add(new Rewrite(contents.toByteArray()));
+        } else {
+            rewrite(contents.toByteArray());
+        }
+    }
+
+    private void prune(UUID uuid, List<Entry> entries, long savedSeq) {
+        if (entries.removeIf(entry -> entry.seq() <= savedSeq)) {
+            dirty = true;
+        }
+        if (entries.isEmpty()) {
+            pending.remove(uuid);
+        }
+    }
+
+    private void append(UUID uuid, long seq, int op, String id, int value) {
+        pending.computeIfAbsent(uuid, key -> new ArrayList<>()).add(new Entry(seq, op, id, value));
+        queue.add(encode(uuid, seq, op, id, value));
+    }
+
+    // Encodes a change record, preceded by a definition record the first time its id appears in this file
+    private byte[] encode(UUID uuid, long seq, int op, String id, int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        int symbol = -1;
+        if (id != null) {
+            symbol = symbols.getOrDefault(id, -1);
+            if (symbol < 0) {
+                symbol = symbols.size();
+                symbols.put(id, symbol);
+                writeFrame(out, payload -> {
+                    payload.writeByte(RECORD_DEFINE);
+                    payload.writeInt(symbols.getInt(id));
+                    payload.writeUTF(id);
+                });
+            }
+        }
+        int idSymbol = symbol;
+        writeFrame(out, payload -> {
+            payload.writeByte(RECORD_CHANGE);
+            payload.writeLong(uuid.getMostSignificantBits());
+            payload.writeLong(uuid.getLeastSignificantBits());
+            payload.writeLong(seq);
+            payload.writeByte(op);
+            payload.writeInt(idSymbol);
+            payload.writeInt(value);
+        });
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutputStream payload) throws IOException;
+    }
+
+    private static void writeFrame(ByteArrayOutputStream out, PayloadWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+            writer.write(new DataOutputStream(bytes));
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            DataOutputStream frame = new DataOutputStream(out);
+            frame.writeInt(payload.length);
+            frame.write(payload);
+            frame.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // Byte array streams don't throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void load() throws IOException {
+        Map<Integer, String> ids = new HashMap<>();
+        int records = 0;
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_FRAME_LENGTH) {
+                        DynamicPortals.LOGGER.warn("Progress journal {} has a corrupt record, ignoring the rest", file);
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        DynamicPortals.LOGGER.warn("Progress journal {} has a corrupt record, ignoring the rest", file);
+                        break;
+                    }
+                } catch (EOFException e) {
+                    // Clean end of file, or a record torn by a crash
+                    break;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = record.readByte();
+                if (type == RECORD_DEFINE) {
+                    int symbol = record.readInt();
+                    ids.put(symbol, record.readUTF());
+                } else if (type == RECORD_CHANGE) {
+                    UUID uuid = new UUID(record.readLong(), record.readLong());
+                    long seq = record.readLong();
+                    int op = record.readByte();
+                    int symbol = record.readInt();
+                    int value = record.readInt();
+                    pending.computeIfAbsent(uuid, key -> new ArrayList<>())
+                            .add(new Entry(seq, op, symbol >= 0 ? ids.get(symbol) : null, value));
+                    records++;
+                }
+            }
+        }
+        DynamicPortals.LOGGER.info("Loaded {} pending progress changes for {} players from the journal", records, pending.size());
+    }
+
+    private void runWriter() {
+        FileChannel channel = null;
+        List<Object> batch = new ArrayList<>();
+        try {
+            channel = openForAppend();
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                boolean closing = false;
+                ByteArrayOutputStream appended = new ByteArrayOutputStream();
+                for (Object command : batch) {
+                    if (command == CLOSE) {
+                        closing = true;
+                    } else if (command instanceof Rewrite rewrite) {
+                        // Appends queued before the rewrite are part of its contents already
+                        appended.reset();
+                        channel.close();
+                        rewrite(rewrite.contents());
+                        channel = openForAppend();
+                    } else {
+                        appended.writeBytes((byte[]) command);
+                    }
+                }
+                batch.clear();
+
+                // Group commit: one write and one fsync for everything drained this round
+                if (appended.size() > 0) {
+                    ByteBuffer buffer = ByteBuffer.wrap(appended.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+                if (closing) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            DynamicPortals.LOGGER.error("Failed to write progress journal {}, journaling stopped", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private FileChannel openForAppend() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Writes the new journal next to the old one and swaps it in, so a crash leaves one of the two intact
+    private void rewrite(byte[] contents) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            DynamicPortals.LOGGER.error("Failed to compact progress journal {}", file, e);
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            DynamicPortals.LOGGER.error("Failed to compact progress journal {}", file, e);
+        }
+    }
+}
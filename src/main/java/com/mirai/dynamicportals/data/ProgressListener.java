@@ -0,0 +1,23 @@
+package com.mirai.dynamicportals.data;
+
+/**
+ * Receives every change made to a {@link PlayerProgressData}, in the order it was made.
+ * Changes applied while loading, copying or replaying progress are not reported.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    int OP_MARK_MOB = 0;
+    int OP_MARK_ITEM = 1;
+    int OP_UNLOCK_ACHIEVEMENT = 2;
+    int OP_KILL_COUNT = 3;
+    int OP_DEATH_COUNT = 4;
+    int OP_RESET = 5;
+
+    /**
+     * @param seq   the player's journal sequence number, increasing by one per change
+     * @param op    one of the {@code OP_} constants
+     * @param id    compact registry id of the mob, item or achievement, null for death counts and resets
+     * @param value the new kill count or death count, 0 for other ops
+     */
+    void onProgressChanged(long seq, int op, String id, int value);
+}
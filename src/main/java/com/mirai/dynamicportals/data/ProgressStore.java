@@ -0,0 +1,46 @@
+package com.mirai.dynamicportals.data;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage backend for player progress. The active store is chosen by {@link ProgressStores}.
+ * <p>
+ * All methods are called from the server thread. Implementations must not block it on
+ * writes; {@link #get} may read from disk, as vanilla does when loading a player file.
+ */
+public interface ProgressStore {
+
+    /**
+     * @return the stored progress of a player, online or not, or empty if the store has none
+     */
+    Optional<PlayerProgressData> get(UUID player);
+
+    /**
+     * Reads what the store itself holds for a player, never the live attachment of an online player.
+     * Used on login, when the player is already in the player list but their stored progress is not loaded yet.
+     * @return the stored progress, or empty if the store has none of its own
+     */
+    Optional<PlayerProgressData> load(UUID player);
+
+    /**
+     * Same as {@link #get} without touching disk on the calling thread. The future completes on the server thread.
+     */
+    CompletableFuture<Optional<PlayerProgressData>> getAsync(UUID player);
+
+    /**
+     * Stores a player's progress. Returns immediately, the write may happen later.
+     */
+    void save(UUID player, PlayerProgressData data);
+
+    /**
+     * Blocks until every earlier save is durable.
+     */
+    void flush();
+
+    /**
+     * Flushes and releases the store; it is not used again afterwards.
+     */
+    void close();
+}
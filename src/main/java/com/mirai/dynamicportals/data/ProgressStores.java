@@ -0,0 +1,49 @@
+package com.mirai.dynamicportals.data;
+
+import com.mirai.dynamicportals.DynamicPortals;
+import com.mirai.dynamicportals.util.ModConstants;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.nio.file.Path;
+
+/**
+ * Holds the {@link ProgressStore} of the running server.
+ */
+public final class ProgressStores {
+    private static ProgressStore active;
+
+    private ProgressStores() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return the active store, or null while no server is running
+     */
+    public static ProgressStore get() {
+        return active;
+    }
+
+    /**
+     * Opens the store selected by the {@code dynamicportals.progressStore} system property.
+     */
+    public static void open(MinecraftServer server) {
+        if (ModConstants.PROGRESS_STORE_FILE.equals(System.getProperty(ModConstants.PROGRESS_STORE_PROPERTY))) {
+            String configured = System.getProperty(ModConstants.PROGRESS_STORE_DIR_PROPERTY);
+            Path directory = configured != null
+                    ? Path.of(configured)
+                    : server.getWorldPath(LevelResource.ROOT).resolve(ModConstants.MOD_ID).resolve(ModConstants.PROGRESS_STORE_FOLDER);
+            DynamicPortals.LOGGER.info("Storing player progress in {}", directory);
+            active = new FileProgressStore(server, directory);
+        } else {
+            active = new AttachmentProgressStore(server);
+        }
+    }
+
+    public static void close() {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+}
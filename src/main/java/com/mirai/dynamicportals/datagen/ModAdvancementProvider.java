@@ -7,18 +7,15 @@ import net.minecraft.advancements.Advancement;
 import net.minecraft.advancements.AdvancementHolder;
 import net.minecraft.advancements.AdvancementRequirements;
 import net.minecraft.advancements.AdvancementType;
-import net.minecraft.advancements.critereon.InventoryChangeTrigger;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.data.PackOutput;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Items;
 import net.neoforged.neoforge.common.data.AdvancementProvider;
 import net.neoforged.neoforge.common.data.ExistingFileHelper;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -44,33 +41,10 @@ public class ModAdvancementProvider extends AdvancementProvider {
                             true,
                             false
                     )
-                    // Require killing all overworld mobs
+                    // Require completing the Nether requirement, mobs, bosses and items alike
                     .addCriterion("kill_overworld_mobs", ModTriggers.KILL_REQUIREMENT.get().createCriterion(
-                            new KillRequirementTrigger.TriggerInstance(
-                                    Optional.empty(),
-                                    List.of(
-                                            EntityType.ZOMBIE,
-                                            EntityType.SKELETON,
-                                            EntityType.CREEPER,
-                                            EntityType.SPIDER,
-                                            EntityType.ENDERMAN,
-                                            EntityType.WITCH,
-                                            EntityType.SLIME,
-                                            EntityType.DROWNED,
-                                            EntityType.HUSK,
-                                            EntityType.STRAY,
-                                            EntityType.BREEZE,
-                                            EntityType.BOGGED,
-                                            EntityType.PILLAGER,
-                                            EntityType.VINDICATOR,
-                                            EntityType.EVOKER
-                                    ),
-                                    List.of(EntityType.ELDER_GUARDIAN), // Boss
-                                    List.of(Items.DIAMOND)
-                            )
+                            KillRequirementTrigger.TriggerInstance.forDimension(ModConstants.NETHER_DIMENSION)
                     ))
-                    // Require obtaining diamond
-                    .addCriterion("has_diamond", InventoryChangeTrigger.TriggerInstance.hasItems(Items.DIAMOND))
                     .requirements(AdvancementRequirements.Strategy.AND)
                     .save(saver, ModConstants.NETHER_ACCESS_ADVANCEMENT.toString());
 
@@ -87,24 +61,10 @@ public class ModAdvancementProvider extends AdvancementProvider {
                             true,
                             false
                     )
-                    // Require killing all nether mobs
+                    // Require completing the End requirement, mobs, bosses and items alike
                     .addCriterion("kill_nether_mobs", ModTriggers.KILL_REQUIREMENT.get().createCriterion(
-                            new KillRequirementTrigger.TriggerInstance(
-                                    Optional.empty(),
-                                    List.of(
-                                            EntityType.GHAST,
-                                            EntityType.BLAZE,
-                                            EntityType.WITHER_SKELETON,
-                                            EntityType.PIGLIN,
-                                            EntityType.PIGLIN_BRUTE,
-                                            EntityType.HOGLIN
-                                    ),
-                                    List.of(EntityType.WARDEN, EntityType.WITHER), // Bosses
-                                    List.of(Items.NETHERITE_INGOT)
-                            )
+                            KillRequirementTrigger.TriggerInstance.forDimension(ModConstants.END_DIMENSION)
                     ))
-                    // Require obtaining netherite
-                    .addCriterion("has_netherite", InventoryChangeTrigger.TriggerInstance.hasItems(Items.NETHERITE_INGOT))
                     .requirements(AdvancementRequirements.Strategy.AND)
                     .save(saver, ModConstants.END_ACCESS_ADVANCEMENT.toString());
         }
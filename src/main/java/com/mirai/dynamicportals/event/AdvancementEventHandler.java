@@ -1,14 +1,14 @@
 package com.mirai.dynamicportals.event;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
 import com.mirai.dynamicportals.data.ModAttachments;
 import com.mirai.dynamicportals.data.PlayerProgressData;
-import com.mirai.dynamicportals.network.SyncProgressPacket;
-import com.mirai.dynamicportals.util.ModConstants;
+import com.mirai.dynamicportals.network.ProgressSync;
 import net.minecraft.advancements.AdvancementHolder;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.player.AdvancementEvent;
-import net.neoforged.neoforge.network.PacketDistributor;
 
 public class AdvancementEventHandler {
 
@@ -21,13 +21,15 @@ public class AdvancementEventHandler {
         AdvancementHolder advancement = event.getAdvancement();
         PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
 
-        // Track when player unlocks our advancements
-        if (advancement.id().equals(ModConstants.NETHER_ACCESS_ADVANCEMENT)) {
-            progressData.unlockAchievement(ModConstants.NETHER_ACCESS_ADVANCEMENT);
-            PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData));
-        } else if (advancement.id().equals(ModConstants.END_ACCESS_ADVANCEMENT)) {
-            progressData.unlockAchievement(ModConstants.END_ACCESS_ADVANCEMENT);
-            PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData));
+        // Track when player unlocks an advancement that gates a dimension
+        ResourceLocation id = advancement.id();
+        if (PortalRequirementRegistry.getInstance().getIndex().ordinalOfAdvancement(id) >= 0) {
+            int version = progressData.getProgressVersion();
+            progressData.unlockAchievement(id);
+            // Re-granted advancements leave the data untouched, nothing to send
+            if (progressData.getProgressVersion() != version) {
+                ProgressSync.sendChanges(player);
+            }
         }
     }
 }
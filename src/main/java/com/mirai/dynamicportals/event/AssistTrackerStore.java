@@ -0,0 +1,235 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.util.ModConstants;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Assist trackers keyed by entity network id, expired on a hashed time wheel
+ * driven by the server tick counter. Only touched from the server thread.
+ * <p>
+ * Trackers are pooled rows in flat primitive arrays: each row holds up to
+ * {@link #MAX_ASSISTS} inline (player slot, hit tick) pairs. Once the pool has
+ * grown to the working set, recording a hit allocates nothing.
+ */
+final class AssistTrackerStore {
+    static final int MAX_ASSISTS = 8;
+
+    // The wheel must span the whole assist window so a deadline never wraps onto the current bucket
+    private static final int WHEEL_SIZE = Mth.smallestEncompassingPowerOfTwo(ModConstants.ASSIST_TIME_WINDOW_TICKS + 1);
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Int2IntOpenHashMap ROW_BY_ENTITY = new Int2IntOpenHashMap();
+    private static final IntArrayList[] WHEEL = new IntArrayList[WHEEL_SIZE];
+    // Live entries found in a firing bucket, moved to their deadline's bucket once it is cleared
+    private static final IntArrayList RESCHEDULED = new IntArrayList();
+    private static int lastExpiredTick = -1;
+
+    // Tracker rows
+    private static int[] rowEntity = new int[INITIAL_CAPACITY];
+    private static int[] rowDeadline = new int[INITIAL_CAPACITY];
+    private static int[] rowSize = new int[INITIAL_CAPACITY];
+    private static Level[] rowLevel = new Level[INITIAL_CAPACITY];
+    private static int[] pairSlot = new int[INITIAL_CAPACITY * MAX_ASSISTS];
+    private static int[] pairTick = new int[INITIAL_CAPACITY * MAX_ASSISTS];
+    private static int[] freeRows = new int[INITIAL_CAPACITY];
+    private static int freeCount = 0;
+    private static int rowCount = 0;
+
+    // Player slots, assigned on first hit and kept for the server session so rows never alias players
+    private static final Object2IntOpenHashMap<UUID> SLOT_BY_PLAYER = new Object2IntOpenHashMap<>();
+    private static final List<UUID> PLAYER_BY_SLOT = new ArrayList<>();
+
+    static {
+        ROW_BY_ENTITY.defaultReturnValue(-1);
+        SLOT_BY_PLAYER.defaultReturnValue(-1);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            WHEEL[i] = new IntArrayList();
+        }
+    }
+
+    private AssistTrackerStore() {
+    }
+
+    static void recordDamage(int entityId, Level level, UUID player, int tick) {
+        int deadline = tick + ModConstants.ASSIST_TIME_WINDOW_TICKS;
+        int playerSlot = slotOf(player);
+
+        int row = ROW_BY_ENTITY.get(entityId);
+        if (row < 0) {
+            row = acquireRow();
+            rowEntity[row] = entityId;
+            rowLevel[row] = level;
+            rowSize[row] = 0;
+            ROW_BY_ENTITY.put(entityId, row);
+            WHEEL[deadline & WHEEL_MASK].add(entityId);
+        }
+        // Later hits only push the deadline back; the wheel entry is re-bucketed lazily when it fires
+        rowDeadline[row] = deadline;
+
+        int base = row * MAX_ASSISTS;
+        int size = rowSize[row];
+        int oldest = base;
+        for (int i = base; i < base + size; i++) {
+            if (pairSlot[i] == playerSlot) {
+                pairTick[i] = tick;
+                return;
+            }
+            if (pairTick[i] < pairTick[oldest]) {
+                oldest = i;
+            }
+        }
+
+        if (size < MAX_ASSISTS) {
+            pairSlot[base + size] = playerSlot;
+            pairTick[base + size] = tick;
+            rowSize[row] = size + 1;
+        } else {
+            // Row is full, the longest-idle damager gives way
+            pairSlot[oldest] = playerSlot;
+            pairTick[oldest] = tick;
+        }
+    }
+
+    /**
+     * Removes the tracker for an entity and copies the slots of players that hit it
+     * within the assist window into {@code out}, which must hold {@link #MAX_ASSISTS} entries.
+     *
+     * @return the number of slots written
+     */
+    static int removeRecentDamagers(int entityId, int tick, int[] out) {
+        int row = ROW_BY_ENTITY.remove(entityId);
+        if (row < 0) {
+            return 0;
+        }
+
+        int count = 0;
+        int base = row * MAX_ASSISTS;
+        for (int i = base; i < base + rowSize[row]; i++) {
+            if (tick - pairTick[i] <= ModConstants.ASSIST_TIME_WINDOW_TICKS) {
+                out[count++] = pairSlot[i];
+            }
+        }
+        releaseRow(row);
+        return count;
+    }
+
+    static UUID playerInSlot(int slot) {
+        return PLAYER_BY_SLOT.get(slot);
+    }
+
+    static void remove(int entityId) {
+        // The stale wheel entry is skipped when its bucket fires
+        int row = ROW_BY_ENTITY.remove(entityId);
+        if (row >= 0) {
+            releaseRow(row);
+        }
+    }
+
+    static void removeLevel(Level level) {
+        // Level unloads are rare, a full scan is fine here
+        for (int row = 0; row < rowCount; row++) {
+            if (rowLevel[row] == level && ROW_BY_ENTITY.get(rowEntity[row]) == row) {
+                ROW_BY_ENTITY.remove(rowEntity[row]);
+                releaseRow(row);
+            }
+        }
+    }
+
+    /**
+     * Expires every tracker whose deadline has passed. Only the buckets for the elapsed ticks are visited,
+     * so the cost is proportional to the number of due entries rather than the map size.
+     */
+    static void expire(int tick) {
+        if (lastExpiredTick < 0) {
+            // Nothing can be due before the first tick anything was scheduled on
+            lastExpiredTick = tick - 1;
+        } else if (tick - lastExpiredTick > WHEEL_SIZE) {
+            lastExpiredTick = tick - WHEEL_SIZE;
+        }
+
+        while (lastExpiredTick < tick) {
+            lastExpiredTick++;
+            IntArrayList bucket = WHEEL[lastExpiredTick & WHEEL_MASK];
+            for (int i = 0; i < bucket.size(); i++) {
+                int entityId = bucket.getInt(i);
+                int row = ROW_BY_ENTITY.get(entityId);
+                if (row < 0) {
+                    continue;
+                }
+                if (rowDeadline[row] <= lastExpiredTick) {
+                    ROW_BY_ENTITY.remove(entityId);
+                    releaseRow(row);
+                } else {
+                    // Never append to the bucket being walked, the deadline may map back onto it
+                    RESCHEDULED.add(entityId);
+                }
+            }
+            bucket.clear();
+            for (int i = 0; i < RESCHEDULED.size(); i++) {
+                int entityId = RESCHEDULED.getInt(i);
+                WHEEL[rowDeadline[ROW_BY_ENTITY.get(entityId)] & WHEEL_MASK].add(entityId);
+            }
+            RESCHEDULED.clear();
+        }
+    }
+
+    static void clear() {
+        ROW_BY_ENTITY.clear();
+        for (IntArrayList bucket : WHEEL) {
+            bucket.clear();
+        }
+        Arrays.fill(rowLevel, null);
+        freeCount = 0;
+        rowCount = 0;
+        lastExpiredTick = -1;
+        SLOT_BY_PLAYER.clear();
+        PLAYER_BY_SLOT.clear();
+    }
+
+    private static int slotOf(UUID player) {
+        int slot = SLOT_BY_PLAYER.getInt(player);
+        if (slot < 0) {
+            slot = PLAYER_BY_SLOT.size();
+            PLAYER_BY_SLOT.add(player);
+            SLOT_BY_PLAYER.put(player, slot);
+        }
+        return slot;
+    }
+
+    private static int acquireRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == rowEntity.length) {
+            grow();
+        }
+        return rowCount++;
+    }
+
+    private static void releaseRow(int row) {
+        rowLevel[row] = null;
+        rowSize[row] = 0;
+        freeRows[freeCount++] = row;
+    }
+
+    private static void grow() {
+        int capacity = rowEntity.length * 2;
+        rowEntity = Arrays.copyOf(rowEntity, capacity);
+        rowDeadline = Arrays.copyOf(rowDeadline, capacity);
+        rowSize = Arrays.copyOf(rowSize, capacity);
+        rowLevel = Arrays.copyOf(rowLevel, capacity);
+        pairSlot = Arrays.copyOf(pairSlot, capacity * MAX_ASSISTS);
+        pairTick = Arrays.copyOf(pairTick, capacity * MAX_ASSISTS);
+        freeRows = Arrays.copyOf(freeRows, capacity);
+    }
+}
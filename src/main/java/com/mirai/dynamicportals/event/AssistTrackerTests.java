@@ -0,0 +1,46 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.util.ModConstants;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.UUID;
+
+/**
+ * Assist tracker wheel, run by the {@code gameTestServer} run config or {@code /test}.
+ * Lives next to {@link AssistTrackerStore} to reach it directly; each test starts and ends with an empty store.
+ */
+@GameTestHolder(ModConstants.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class AssistTrackerTests {
+    // Never a real entity id, so no live tracker is touched
+    private static final int ENTITY_ID = -1;
+    private static final UUID PLAYER = new UUID(0L, 1L);
+
+    /**
+     * The first expiry after a clear must not walk the bucket a fresh tracker's deadline maps to and
+     * re-add the tracker to it while iterating, which never returned
+     */
+    @GameTest(template = "empty")
+    public static void firstExpireKeepsLiveTracker(GameTestHelper helper) {
+        int tick = helper.getLevel().getServer().getTickCount();
+        int[] damagers = new int[AssistTrackerStore.MAX_ASSISTS];
+        AssistTrackerStore.clear();
+        try {
+            AssistTrackerStore.recordDamage(ENTITY_ID, helper.getLevel(), PLAYER, tick);
+            AssistTrackerStore.expire(tick);
+            helper.assertTrue(AssistTrackerStore.removeRecentDamagers(ENTITY_ID, tick, damagers) == 1,
+                    "Tracker expired before its deadline");
+
+            AssistTrackerStore.recordDamage(ENTITY_ID, helper.getLevel(), PLAYER, tick);
+            AssistTrackerStore.expire(tick + ModConstants.ASSIST_TIME_WINDOW_TICKS);
+            helper.assertTrue(AssistTrackerStore.removeRecentDamagers(ENTITY_ID, tick, damagers) == 0,
+                    "Tracker outlived its deadline");
+        } finally {
+            AssistTrackerStore.clear();
+        }
+        helper.succeed();
+    }
+}
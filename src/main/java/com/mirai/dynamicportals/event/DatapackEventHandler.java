@@ -0,0 +1,29 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.data.PortalRequirementLoader;
+import com.mirai.dynamicportals.network.ProgressSync;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import net.neoforged.neoforge.event.OnDatapackSyncEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+
+public class DatapackEventHandler {
+
+    @SubscribeEvent
+    public void onAddReloadListeners(AddReloadListenerEvent event) {
+        event.addListener(new PortalRequirementLoader());
+    }
+
+    // Server reloads and tag packets on the client alike; requirements compiled before the tags were bound pick them up here
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event) {
+        PortalRequirementRegistry.getInstance().refreshTags();
+    }
+
+    @SubscribeEvent
+    public void onDatapackSync(OnDatapackSyncEvent event) {
+        // Fires for a joining player, and for everyone after /reload
+        event.getRelevantPlayers().forEach(ProgressSync::sendRequirements);
+    }
+}
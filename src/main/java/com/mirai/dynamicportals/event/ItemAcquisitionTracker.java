@@ -0,0 +1,121 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.advancement.ModTriggers;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.network.ProgressSync;
+import com.mirai.dynamicportals.util.BitSets;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.inventory.ResultSlot;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+
+/**
+ * Records required items as they enter a player's inventory, however they got there.
+ * <p>
+ * Listens to inventory slot changes the same way vanilla feeds {@code InventoryChangeTrigger}: on the
+ * player's inventory menu and on every container menu they open, counting only slots backed by the
+ * player's own inventory. Crafting and smelting results are caught from their events as well, since they
+ * can be taken straight onto the cursor. Each stack costs one bit test against the item reverse index.
+ */
+public class ItemAcquisitionTracker {
+
+    // After stored and journaled progress is loaded, so the sweep below only records what is missing
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            player.inventoryMenu.addSlotListener(new InventoryListener(player));
+
+            // Items carried in from before the requirement existed
+            for (int slot = 0; slot < player.getInventory().getContainerSize(); slot++) {
+                record(player, player.getInventory().getItem(slot));
+            }
+        }
+    }
+
+    // Respawning creates a new player with a new inventory menu
+    @SubscribeEvent
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            player.inventoryMenu.addSlotListener(new InventoryListener(player));
+        }
+    }
+
+    @SubscribeEvent
+    public void onContainerOpen(PlayerContainerEvent.Open event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            event.getContainer().addSlotListener(new InventoryListener(player));
+        }
+    }
+
+    @SubscribeEvent
+    public void onItemCrafted(PlayerEvent.ItemCraftedEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            record(player, event.getCrafting());
+        }
+    }
+
+    @SubscribeEvent
+    public void onItemSmelted(PlayerEvent.ItemSmeltedEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            record(player, event.getSmelting());
+        }
+    }
+
+    /**
+     * Records a stack the player obtained, if any requirement still needs it
+     */
+    static void record(ServerPlayer player, ItemStack stack) {
+        if (stack.isEmpty()) {
+            return;
+        }
+        Item item = stack.getItem();
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        if (!index.isRelevant(item)) {
+            return;
+        }
+        PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
+        if (!progressData.needsItem(item)) {
+            return;
+        }
+        progressData.recordItemObtained(item);
+
+        // The item may have been the last missing target of these requirements
+        long[] affected = BitSets.EMPTY;
+        for (int ordinal : index.requirementsFor(item)) {
+            affected = BitSets.set(affected, ordinal);
+        }
+        long[] slots = BitSets.set(BitSets.EMPTY, index.itemSlot(item));
+        for (int tagSlot : index.itemTagSlots(item)) {
+            slots = BitSets.set(slots, tagSlot);
+        }
+        ModTriggers.KILL_REQUIREMENT.get().trigger(player, affected, slots);
+
+        // Sync to client
+        ProgressSync.sendChanges(player);
+    }
+
+    private record InventoryListener(ServerPlayer player) implements ContainerListener {
+        @Override
+        public void slotChanged(AbstractContainerMenu menu, int slotIndex, ItemStack stack) {
+            Slot slot = menu.getSlot(slotIndex);
+            // Result previews are not obtained until taken, which the crafting event reports
+            if (!(slot instanceof ResultSlot) && slot.container == player.getInventory()) {
+                record(player, stack);
+            }
+        }
+
+        @Override
+        public void dataChanged(AbstractContainerMenu menu, int dataSlotIndex, int value) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.advancement.ModTriggers;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.network.ProgressSync;
+import com.mirai.dynamicportals.util.BitSets;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * Collects kill credits during a server tick and applies them once at the end of it,
+ * so a mass kill costs each player one advancement check and one sync packet.
+ * Only touched from the server thread.
+ */
+final class KillCreditQueue {
+    private static final Reference2ObjectLinkedOpenHashMap<ServerPlayer, Reference2IntOpenHashMap<EntityType<?>>> PENDING =
+            new Reference2ObjectLinkedOpenHashMap<>();
+    // Recycled kill tallies, mass kills would otherwise churn through one per player per tick
+    private static final ArrayDeque<Reference2IntOpenHashMap<EntityType<?>>> SPARE_TALLIES = new ArrayDeque<>();
+
+    private KillCreditQueue() {
+    }
+
+    static void credit(ServerPlayer player, EntityType<?> entityType) {
+        if (!player.getData(ModAttachments.PLAYER_PROGRESS).needsKills(entityType)) {
+            return;
+        }
+
+        Reference2IntOpenHashMap<EntityType<?>> kills = PENDING.get(player);
+        if (kills == null) {
+            kills = SPARE_TALLIES.isEmpty() ? new Reference2IntOpenHashMap<>() : SPARE_TALLIES.pop();
+            PENDING.put(player, kills);
+        }
+        kills.addTo(entityType, 1);
+    }
+
+    static void flush() {
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<ServerPlayer, Reference2IntOpenHashMap<EntityType<?>>> entry : PENDING.entrySet()) {
+            ServerPlayer player = entry.getKey();
+            Reference2IntOpenHashMap<EntityType<?>> kills = entry.getValue();
+
+            if (!player.hasDisconnected()) {
+                apply(player, kills);
+            }
+
+            kills.clear();
+            SPARE_TALLIES.push(kills);
+        }
+        PENDING.clear();
+    }
+
+    static void clear() {
+        PENDING.clear();
+        SPARE_TALLIES.clear();
+    }
+
+    private static void apply(ServerPlayer player, Reference2IntOpenHashMap<EntityType<?>> kills) {
+        PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
+
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        int version = progressData.getProgressVersion();
+        // Requirements these kills count toward, from the index's per-type reverse lookup
+        long[] affected = BitSets.EMPTY;
+        // Slots these kills counted toward, for the criteria that list their own targets
+        long[] slots = BitSets.EMPTY;
+        for (Reference2IntMap.Entry<EntityType<?>> kill : kills.reference2IntEntrySet()) {
+            progressData.recordKills(kill.getKey(), kill.getIntValue());
+            for (int ordinal : index.requirementsFor(kill.getKey())) {
+                affected = BitSets.set(affected, ordinal);
+            }
+            slots = BitSets.set(slots, index.entitySlot(kill.getKey()));
+            for (int tagSlot : index.entityTagSlots(kill.getKey())) {
+                slots = BitSets.set(slots, tagSlot);
+            }
+        }
+
+        if (progressData.getProgressVersion() != version) {
+            // Trigger advancement check for the affected requirements only
+            ModTriggers.KILL_REQUIREMENT.get().trigger(player, affected, slots);
+
+            // Sync to client
+            ProgressSync.sendChanges(player);
+        }
+    }
+}
@@ -1,42 +1,37 @@
 package com.mirai.dynamicportals.event;
 
-import com.mirai.dynamicportals.advancement.ModTriggers;
-import com.mirai.dynamicportals.data.ModAttachments;
-import com.mirai.dynamicportals.data.PlayerProgressData;
-import com.mirai.dynamicportals.network.SyncProgressPacket;
-import com.mirai.dynamicportals.util.ModConstants;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
 import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.entity.EntityLeaveLevelEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDamageEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
-import net.neoforged.neoforge.network.PacketDistributor;
-
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
 public class MobKillHandler {
-    
-    // Track damage sources for assist system (last 5 seconds)
-    private static final Map<LivingEntity, AssistTracker> DAMAGE_TRACKERS = new ConcurrentHashMap<>();
-    private static final long ASSIST_WINDOW_MS = ModConstants.ASSIST_TIME_WINDOW_SECONDS * 1000L;
+    // Scratch buffer for assist lookups, handlers only run on the server thread
+    private final int[] assistSlots = new int[AssistTrackerStore.MAX_ASSISTS];
 
     @SubscribeEvent
     public void onLivingDamage(LivingDamageEvent.Pre event) {
         LivingEntity target = event.getEntity();
         DamageSource source = event.getSource();
         
-        if (target.level().isClientSide()) {
+        if (target.level().isClientSide() || !PortalRequirementRegistry.getInstance().getIndex().isRelevant(target.getType())) {
             return;
         }
 
         // Track player damage for assist system
         if (source.getEntity() instanceof Player player) {
-            AssistTracker tracker = DAMAGE_TRACKERS.computeIfAbsent(target, k -> new AssistTracker());
-            tracker.addDamager(player);
+            AssistTrackerStore.recordDamage(target.getId(), target.level(), player.getUUID(), currentTick(target));
         }
     }
 
@@ -44,76 +39,60 @@ public class MobKillHandler {
     public void onLivingDeath(LivingDeathEvent event) {
         LivingEntity entity = event.getEntity();
         
-        if (entity.level().isClientSide()) {
+        if (entity.level().isClientSide() || !PortalRequirementRegistry.getInstance().getIndex().isRelevant(entity.getType())) {
             return;
         }
 
-        // Get all players who contributed to this kill (killer + assists)
-        Set<ServerPlayer> contributors = new HashSet<>();
-        
-        // Add direct killer if it's a player
-        if (event.getSource().getEntity() instanceof ServerPlayer killer) {
-            contributors.add(killer);
-        }
+        // Credit every player who contributed to this kill (killer + assists), once each
+        EntityType<?> entityType = entity.getType();
 
-        // Add assists from damage tracker
-        AssistTracker tracker = DAMAGE_TRACKERS.remove(entity);
-        if (tracker != null) {
-            for (Player player : tracker.getRecentDamagers()) {
-                if (player instanceof ServerPlayer serverPlayer) {
-                    contributors.add(serverPlayer);
-                }
-            }
+        // Direct killer if it's a player
+        ServerPlayer killer = event.getSource().getEntity() instanceof ServerPlayer player ? player : null;
+        if (killer != null) {
+            KillCreditQueue.credit(killer, entityType);
         }
 
-        // Award kill credit to all contributors
-        EntityType<?> entityType = entity.getType();
-        for (ServerPlayer player : contributors) {
-            PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
-            
-            if (!progressData.hasMobBeenKilled(entityType)) {
-                progressData.markMobKilled(entityType);
-                
-                // Trigger advancement check
-                ModTriggers.KILL_REQUIREMENT.get().trigger(player);
-                
-                // Sync to client
-                PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData));
+        // Assists from damage tracker
+        MinecraftServer server = entity.level().getServer();
+        int assists = AssistTrackerStore.removeRecentDamagers(entity.getId(), server.getTickCount(), assistSlots);
+        for (int i = 0; i < assists; i++) {
+            ServerPlayer serverPlayer = server.getPlayerList().getPlayer(AssistTrackerStore.playerInSlot(assistSlots[i]));
+            if (serverPlayer != null && serverPlayer != killer) {
+                KillCreditQueue.credit(serverPlayer, entityType);
             }
         }
     }
 
-    // Clean up old trackers periodically
-    public static void cleanupOldTrackers() {
-        long currentTime = System.currentTimeMillis();
-        DAMAGE_TRACKERS.entrySet().removeIf(entry -> 
-            !entry.getKey().isAlive() || entry.getValue().isExpired(currentTime)
-        );
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent.Post event) {
+        // Kill credits gathered this tick are applied in one batch per player
+        KillCreditQueue.flush();
+        AssistTrackerStore.expire(event.getServer().getTickCount());
     }
 
-    private static class AssistTracker {
-        private final Map<Player, Long> damagers = new HashMap<>();
-
-        public void addDamager(Player player) {
-            damagers.put(player, System.currentTimeMillis());
+    @SubscribeEvent
+    public void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        // Despawned, unloaded or dimension-changed mobs can no longer die here
+        if (!event.getLevel().isClientSide()) {
+            AssistTrackerStore.remove(event.getEntity().getId());
         }
+    }
 
-        public List<Player> getRecentDamagers() {
-            long currentTime = System.currentTimeMillis();
-            List<Player> recent = new ArrayList<>();
-            
-            for (Map.Entry<Player, Long> entry : damagers.entrySet()) {
-                if (currentTime - entry.getValue() <= ASSIST_WINDOW_MS) {
-                    recent.add(entry.getKey());
-                }
-            }
-            
-            return recent;
+    @SubscribeEvent
+    public void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            AssistTrackerStore.removeLevel(level);
         }
+    }
 
-        public boolean isExpired(long currentTime) {
-            return damagers.values().stream()
-                    .allMatch(time -> currentTime - time > ASSIST_WINDOW_MS);
-        }
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        // Tick counters restart with the next integrated server
+        AssistTrackerStore.clear();
+        KillCreditQueue.clear();
+    }
+
+    private static int currentTick(LivingEntity entity) {
+        return entity.level().getServer().getTickCount();
     }
 }
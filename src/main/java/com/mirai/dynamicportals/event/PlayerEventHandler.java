@@ -1,18 +1,19 @@
 package com.mirai.dynamicportals.event;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
 import com.mirai.dynamicportals.data.ModAttachments;
 import com.mirai.dynamicportals.data.PlayerProgressData;
-import com.mirai.dynamicportals.network.SyncProgressPacket;
+import com.mirai.dynamicportals.network.ProgressSync;
 import com.mirai.dynamicportals.util.ModConstants;
+import net.minecraft.advancements.AdvancementHolder;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.Items;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
-import net.neoforged.neoforge.event.entity.player.ItemEntityPickupEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
-import net.neoforged.neoforge.network.PacketDistributor;
 
 public class PlayerEventHandler {
 
@@ -31,10 +32,10 @@ public class PlayerEventHandler {
         if (progressData.shouldResetProgress()) {
             progressData.resetProgress();
             player.sendSystemMessage(Component.translatable(ModConstants.MSG_PROGRESS_RESET));
+            ProgressSync.sendFull(player);
+        } else {
+            ProgressSync.sendChanges(player);
         }
-
-        // Sync to client
-        PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData));
     }
 
     @SubscribeEvent
@@ -49,60 +50,49 @@ public class PlayerEventHandler {
             
             newData.copyFrom(oldData);
 
-            // Sync to client if on server
+            // Sync to client if on server; changes are collected from the new data from here on
             if (newPlayer instanceof ServerPlayer serverPlayer) {
-                PacketDistributor.sendToPlayer(serverPlayer, SyncProgressPacket.fromProgressData(newData));
-            }
-        }
-    }
-
-    @SubscribeEvent
-    public void onItemPickup(ItemEntityPickupEvent.Pre event) {
-        if (!(event.getPlayer() instanceof ServerPlayer player)) {
-            return;
-        }
-
-        PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
-        net.minecraft.world.item.Item pickedItem = event.getItemEntity().getItem().getItem();
-
-        // Track diamond and netherite ingot
-        if (pickedItem == Items.DIAMOND || pickedItem == Items.NETHERITE_INGOT) {
-            if (!progressData.hasItemBeenObtained(pickedItem)) {
-                progressData.markItemObtained(pickedItem);
-                
-                // Sync to client
-                PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData));
+                ProgressSync.sendFull(serverPlayer);
             }
         }
     }
 
-    // Item pickup is tracked via advancement inventory criteria
-    // No additional event handling needed here for diamond/netherite
-
     @SubscribeEvent
     public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
         if (event.getEntity() instanceof ServerPlayer serverPlayer) {
             // Sync progress data when player logs in
             PlayerProgressData progressData = serverPlayer.getData(ModAttachments.PLAYER_PROGRESS);
-            PacketDistributor.sendToPlayer(serverPlayer, SyncProgressPacket.fromProgressData(progressData));
+            ProgressSync.sendFull(serverPlayer);
             
             // Check if player can complete any advancements they missed
             checkAndGrantAdvancements(serverPlayer, progressData);
+            ProgressSync.sendChanges(serverPlayer);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer serverPlayer) {
+            ProgressSync.sendFull(serverPlayer);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer serverPlayer) {
+            ProgressSync.stop(serverPlayer);
         }
     }
 
     private void checkAndGrantAdvancements(ServerPlayer player, PlayerProgressData progressData) {
         // Mark achievements as unlocked in our data when player earns them via vanilla advancement system
-        if (player.getAdvancements().getOrStartProgress(
-                player.server.getAdvancements().get(ModConstants.NETHER_ACCESS_ADVANCEMENT)
-        ).isDone()) {
-            progressData.unlockAchievement(ModConstants.NETHER_ACCESS_ADVANCEMENT);
-        }
-        
-        if (player.getAdvancements().getOrStartProgress(
-                player.server.getAdvancements().get(ModConstants.END_ACCESS_ADVANCEMENT)
-        ).isDone()) {
-            progressData.unlockAchievement(ModConstants.END_ACCESS_ADVANCEMENT);
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            ResourceLocation id = index.requirement(ordinal).getRequiredAdvancement();
+            AdvancementHolder advancement = id != null ? player.server.getAdvancements().get(id) : null;
+            if (advancement != null && player.getAdvancements().getOrStartProgress(advancement).isDone()) {
+                progressData.unlockAchievement(id);
+            }
         }
     }
 }
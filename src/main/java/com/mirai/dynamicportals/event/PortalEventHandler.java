@@ -1,42 +1,133 @@
 package com.mirai.dynamicportals.event;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
 import com.mirai.dynamicportals.data.ModAttachments;
 import com.mirai.dynamicportals.data.PlayerProgressData;
 import com.mirai.dynamicportals.util.ModConstants;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.PortalProcessor;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.EndPortalBlock;
+import net.minecraft.world.level.block.NetherPortalBlock;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.EntityTravelToDimensionEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.PlayerTickEvent;
+
+import java.util.UUID;
 
 public class PortalEventHandler {
+    // Last decision per player; a player standing in a portal asks for the same answer every few ticks
+    private final Object2ObjectOpenHashMap<UUID, Decision> decisions = new Object2ObjectOpenHashMap<>();
+
+    /**
+     * Outcome of the last gate check, valid while the target, the index, the player's progress data object and
+     * its version are unchanged. Versions restart with every data object, so the object itself is compared too.
+     */
+    private static final class Decision {
+        ResourceKey<Level> dimension;
+        RequirementIndex index;
+        PlayerProgressData progressData;
+        int progressVersion;
+        boolean allowed;
+        int nextMessageTick;
 
+        boolean matches(ResourceKey<Level> dimension, RequirementIndex index, PlayerProgressData progressData) {
+            return this.dimension == dimension && this.index == index && this.progressData == progressData
+                    && this.progressVersion == progressData.getProgressVersion();
+        }
+    }
+
+    /**
+     * Early gate for vanilla portals. Runs before the player's base tick hands the pending portal to
+     * {@code Entity.handlePortal}, which computes the destination, loads or generates chunks around it
+     * and searches for or builds the exit portal. Dropping the portal process here means a locked player
+     * never causes any of that work.
+     */
     @SubscribeEvent
-    public void onEntityTravelToDimension(EntityTravelToDimensionEvent event) {
-        if (!(event.getEntity() instanceof ServerPlayer player)) {
+    public void onPlayerTick(PlayerTickEvent.Pre event) {
+        if (!(event.getEntity() instanceof ServerPlayer player) || player.portalProcess == null) {
             return;
         }
 
-        ResourceKey<Level> targetDimension = event.getDimension();
+        ResourceKey<Level> targetDimension = portalTarget(player.serverLevel(), player.portalProcess);
+        if (targetDimension != null && !isAllowed(player, targetDimension)) {
+            player.portalProcess = null;
+            notifyDenied(player, targetDimension);
+        }
+    }
+
+    // Late gate for everything else: modded portals, commands and other scripted dimension changes
+    @SubscribeEvent
+    public void onEntityTravelToDimension(EntityTravelToDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player && !isAllowed(player, event.getDimension())) {
+            event.setCanceled(true);
+            notifyDenied(player, event.getDimension());
+        }
+    }
+
+    // The new player after death or leaving the End carries a new progress data object
+    @SubscribeEvent
+    public void onPlayerClone(PlayerEvent.Clone event) {
+        decisions.remove(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        decisions.remove(event.getEntity().getUUID());
+    }
+
+    private boolean isAllowed(ServerPlayer player, ResourceKey<Level> targetDimension) {
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
         PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
+        Decision decision = decision(player);
+        if (!decision.matches(targetDimension, index, progressData)) {
+            // Any dimension with a registered requirement is gated, vanilla or modded
+            int ordinal = index.ordinalOf(targetDimension);
+            decision.dimension = targetDimension;
+            decision.index = index;
+            decision.progressData = progressData;
+            decision.progressVersion = progressData.getProgressVersion();
+            decision.allowed = ordinal < 0 || progressData.canAccess(index, ordinal);
+        }
+        return decision.allowed;
+    }
 
-        // Check Nether portal access
-        if (targetDimension.location().equals(ModConstants.NETHER_DIMENSION)) {
-            if (!progressData.isAchievementUnlocked(ModConstants.NETHER_ACCESS_ADVANCEMENT)) {
-                event.setCanceled(true);
-                player.sendSystemMessage(Component.translatable(ModConstants.MSG_PORTAL_BLOCKED_NETHER));
-                return;
-            }
+    private void notifyDenied(ServerPlayer player, ResourceKey<Level> targetDimension) {
+        Decision decision = decision(player);
+        int tick = player.server.getTickCount();
+        if (tick - decision.nextMessageTick >= 0) {
+            decision.nextMessageTick = tick + ModConstants.PORTAL_DENIAL_COOLDOWN_TICKS;
+            player.displayClientMessage(blockedMessage(targetDimension), true);
         }
+    }
+
+    private Decision decision(ServerPlayer player) {
+        return decisions.computeIfAbsent(player.getUUID(), uuid -> new Decision());
+    }
 
-        // Check End portal access
-        if (targetDimension.location().equals(ModConstants.END_DIMENSION)) {
-            if (!progressData.isAchievementUnlocked(ModConstants.END_ACCESS_ADVANCEMENT)) {
-                event.setCanceled(true);
-                player.sendSystemMessage(Component.translatable(ModConstants.MSG_PORTAL_BLOCKED_END));
-                return;
-            }
+    /**
+     * @return where the portal block the player entered leads, or null for portals only the late gate can see
+     */
+    private static ResourceKey<Level> portalTarget(ServerLevel level, PortalProcessor portal) {
+        Block block = level.getBlockState(portal.getEntryPosition()).getBlock();
+        if (block instanceof NetherPortalBlock) {
+            return level.dimension() == Level.NETHER ? Level.OVERWORLD : Level.NETHER;
         }
+        if (block instanceof EndPortalBlock) {
+            return level.dimension() == Level.END ? Level.OVERWORLD : Level.END;
+        }
+        return null;
+    }
+
+    private static Component blockedMessage(ResourceKey<Level> dimension) {
+        return Component.translatableWithFallback(ModConstants.MSG_PORTAL_BLOCKED + "." + dimension.location().toLanguageKey(),
+                "You cannot enter " + dimension.location() + " yet!");
     }
 }
@@ -0,0 +1,72 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.ProgressJournal;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+/**
+ * Wires the optional {@link ProgressJournal} into the server lifecycle.
+ * Only registered when the journal is enabled.
+ */
+public class ProgressJournalHandler {
+
+    @SubscribeEvent
+    public void onServerStarted(ServerStartedEvent event) {
+        ProgressJournal.open(event.getServer());
+    }
+
+    // Replay before the other login handlers sync progress to the client
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        ProgressJournal journal = ProgressJournal.get();
+        if (journal != null && event.getEntity() instanceof ServerPlayer player) {
+            journal.attach(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        event.getEntity().getData(ModAttachments.PLAYER_PROGRESS).setListener(null);
+    }
+
+    // After the progress has been copied over to the new player
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onPlayerClone(PlayerEvent.Clone event) {
+        // The respawned player gets a fresh attachment, keep journaling its changes
+        ProgressJournal journal = ProgressJournal.get();
+        if (journal != null && event.getEntity() instanceof ServerPlayer player) {
+            event.getOriginal().getData(ModAttachments.PLAYER_PROGRESS).setListener(null);
+            journal.attach(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerSaved(PlayerEvent.SaveToFile event) {
+        ProgressJournal journal = ProgressJournal.get();
+        if (journal != null && event.getEntity() instanceof ServerPlayer player) {
+            journal.onPlayerSaved(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onLevelSave(LevelEvent.Save event) {
+        // Players are saved before the levels, once per save is enough
+        ProgressJournal journal = ProgressJournal.get();
+        if (journal != null && event.getLevel() instanceof ServerLevel level && level.dimension() == Level.OVERWORLD) {
+            journal.compact();
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        ProgressJournal.close();
+    }
+}
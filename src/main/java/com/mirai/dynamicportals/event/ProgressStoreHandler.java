@@ -0,0 +1,52 @@
+package com.mirai.dynamicportals.event;
+
+import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.data.ProgressStore;
+import com.mirai.dynamicportals.data.ProgressStores;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+/**
+ * Keeps the active {@link ProgressStore} in step with the player attachment.
+ */
+public class ProgressStoreHandler {
+
+    @SubscribeEvent
+    public void onServerStarted(ServerStartedEvent event) {
+        ProgressStores.open(event.getServer());
+    }
+
+    // Load stored progress before the journal replays on top of it and before the login sync
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        ProgressStore store = ProgressStores.get();
+        if (store == null || !(event.getEntity() instanceof ServerPlayer player)) {
+            return;
+        }
+        // The player is in the player list already, so get() would only return the attachment itself
+        PlayerProgressData attached = player.getData(ModAttachments.PLAYER_PROGRESS);
+        store.load(player.getUUID())
+                // The store writes asynchronously, while journal compaction only waits for the vanilla player file.
+                // If the attachment has journaled changes the stored copy lacks, the journal may have dropped them already
+                .filter(stored -> stored.getJournalSeq() >= attached.getJournalSeq())
+                .ifPresent(attached::copyFrom);
+    }
+
+    @SubscribeEvent
+    public void onPlayerSaved(PlayerEvent.SaveToFile event) {
+        ProgressStore store = ProgressStores.get();
+        if (store != null && event.getEntity() instanceof ServerPlayer player) {
+            store.save(player.getUUID(), player.getData(ModAttachments.PLAYER_PROGRESS));
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        ProgressStores.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.mirai.dynamicportals.gametest;
+
+import com.mirai.dynamicportals.util.ModConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.Portal;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Portal gating, run by the {@code gameTestServer} run config or {@code /test}
+ */
+@GameTestHolder(ModConstants.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class PortalGateTests {
+    // Longer than the survival Nether portal delay, so an ungated player would have travelled
+    private static final int PORTAL_TICKS = 100;
+
+    /**
+     * A player without Nether access standing in a Nether portal is turned back before vanilla computes the
+     * destination. Finding or building the exit portal reads chunks around it, so no Nether chunk loads
+     * means no portal search either.
+     */
+    @GameTest(template = "empty", timeoutTicks = PORTAL_TICKS + 20)
+    public static void lockedPortalLoadsNoDestinationChunks(GameTestHelper helper) {
+        ServerLevel nether = helper.getLevel().getServer().getLevel(Level.NETHER);
+        helper.assertTrue(nether != null, "The Nether is not loaded");
+
+        AtomicInteger chunkLoads = new AtomicInteger();
+        Consumer<ChunkEvent.Load> counter = event -> {
+            if (event.getLevel() == nether) {
+                chunkLoads.incrementAndGet();
+            }
+        };
+        NeoForge.EVENT_BUS.addListener(ChunkEvent.Load.class, counter);
+
+        // Without neighbour updates, so the frameless portal block is not broken
+        BlockPos portalPos = helper.absolutePos(new BlockPos(1, 1, 1));
+        helper.getLevel().setBlock(portalPos, Blocks.NETHER_PORTAL.defaultBlockState(), Block.UPDATE_CLIENTS);
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        player.moveTo(Vec3.atBottomCenterOf(portalPos));
+
+        // Runs once, whether the test passes or fails, so later tests see neither the listener nor the player
+        AtomicBoolean cleanedUp = new AtomicBoolean();
+        Runnable cleanup = () -> {
+            if (cleanedUp.compareAndSet(false, true)) {
+                NeoForge.EVENT_BUS.unregister(counter);
+                helper.getLevel().getServer().getPlayerList().remove(player);
+            }
+        };
+
+        // Mock players have no connection ticking them, so they are ticked by hand
+        helper.startSequence()
+                .thenExecuteFor(PORTAL_TICKS, () -> {
+                    try {
+                        player.setAsInsidePortal((Portal) Blocks.NETHER_PORTAL, portalPos);
+                        player.doTick();
+                    } catch (RuntimeException e) {
+                        cleanup.run();
+                        throw e;
+                    }
+                })
+                .thenExecute(() -> {
+                    try {
+                        helper.assertTrue(player.level() == helper.getLevel(), "Locked player left the overworld");
+                        helper.assertTrue(player.portalProcess == null, "Locked player kept a pending portal");
+                        helper.assertTrue(chunkLoads.get() == 0, "Locked portal loaded " + chunkLoads.get() + " Nether chunks");
+                    } finally {
+                        cleanup.run();
+                    }
+                })
+                .thenSucceed();
+    }
+}
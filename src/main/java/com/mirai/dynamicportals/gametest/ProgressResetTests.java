@@ -0,0 +1,52 @@
+package com.mirai.dynamicportals.gametest;
+
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.util.ModConstants;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+/**
+ * Death resets, run by the {@code gameTestServer} run config or {@code /test}
+ */
+@GameTestHolder(ModConstants.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class ProgressResetTests {
+    private static final ResourceLocation OPEN_TIER = ResourceLocation.fromNamespaceAndPath(ModConstants.MOD_ID, "test_open_tier");
+    private static final ResourceLocation LOCKED_TIER = ResourceLocation.fromNamespaceAndPath(ModConstants.MOD_ID, "test_locked_tier");
+
+    /**
+     * A target shared by an open and a locked tier survives the reset; one only the locked tier needs does not
+     */
+    @GameTest(template = "empty")
+    public static void resetKeepsTargetsOfOpenTiers(GameTestHelper helper) {
+        PortalRequirementRegistry registry = PortalRequirementRegistry.getInstance();
+        registry.registerPortalRequirement(PortalRequirement.builder(OPEN_TIER)
+                .addMob(EntityType.ZOMBIE)
+                .build());
+        registry.registerPortalRequirement(PortalRequirement.builder(LOCKED_TIER)
+                .addMobs(EntityType.ZOMBIE, EntityType.SKELETON)
+                .addItem(Items.DIAMOND)
+                .build());
+        try {
+            PlayerProgressData progressData = new PlayerProgressData();
+            progressData.recordKills(EntityType.ZOMBIE, 1);
+            progressData.recordKills(EntityType.SKELETON, 1);
+            helper.assertTrue(progressData.isRequirementComplete(OPEN_TIER), "Open tier not complete before the reset");
+
+            progressData.resetProgress();
+            helper.assertTrue(progressData.isRequirementComplete(OPEN_TIER), "Reset cleared a target of an open tier");
+            helper.assertTrue(progressData.getKillCount(EntityType.SKELETON) == 0, "Reset kept a target only a locked tier needs");
+        } finally {
+            registry.removeRequirement(OPEN_TIER);
+            registry.removeRequirement(LOCKED_TIER);
+        }
+        helper.succeed();
+    }
+}
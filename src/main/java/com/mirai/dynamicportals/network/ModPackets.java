@@ -4,6 +4,7 @@ import com.mirai.dynamicportals.client.ClientPacketHandler;
 import com.mirai.dynamicportals.util.ModConstants;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.registration.HandlerThread;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 
 public class ModPackets {
@@ -13,12 +14,31 @@ public class ModPackets {
 
     private static void registerPayloads(final RegisterPayloadHandlersEvent event) {
         final PayloadRegistrar registrar = event.registrar(ModConstants.MOD_ID)
-                .versioned("1.0");
+                .versioned("1.2");
 
         registrar.playToClient(
                 SyncProgressPacket.TYPE,
                 SyncProgressPacket.STREAM_CODEC,
                 ClientPacketHandler::handleSyncProgress
         );
+
+        registrar.playToClient(
+                ProgressDeltaPacket.TYPE,
+                ProgressDeltaPacket.STREAM_CODEC,
+                ClientPacketHandler::handleProgressDelta
+        );
+
+        // Handled on the network thread, so the progress wire table is in place before the next packet is decoded
+        registrar.executesOn(HandlerThread.NETWORK).playToClient(
+                SyncRequirementsPacket.TYPE,
+                SyncRequirementsPacket.STREAM_CODEC,
+                ClientPacketHandler::handleSyncRequirements
+        );
+
+        registrar.playToServer(
+                RequestProgressSyncPacket.TYPE,
+                RequestProgressSyncPacket.STREAM_CODEC,
+                ProgressSync::handleResyncRequest
+        );
     }
 }
@@ -0,0 +1,52 @@
+package com.mirai.dynamicportals.network;
+
+import com.mirai.dynamicportals.data.ProgressListener;
+import com.mirai.dynamicportals.util.ModConstants;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Changes to a player's progress since the previous packet, in the order they were made.
+ * @param sequence One more than the sequence of the packet before it, so the client can spot a missed one
+ * @param changes  Changes as reported to a {@link ProgressListener}
+ */
+public record ProgressDeltaPacket(int sequence, List<Change> changes) implements CustomPacketPayload {
+
+    /**
+     * @param op    one of the {@code ProgressListener.OP_} constants
+     * @param id    compact registry id of the mob, item or achievement, empty for death counts and resets
+     * @param value the new kill count or death count, 0 for other ops
+     */
+    public record Change(int op, Optional<String> id, int value) {
+        public static final StreamCodec<ByteBuf, Change> STREAM_CODEC = StreamCodec.composite(
+                ByteBufCodecs.VAR_INT,
+                Change::op,
+                ByteBufCodecs.optional(ByteBufCodecs.STRING_UTF8),
+                Change::id,
+                ByteBufCodecs.VAR_INT,
+                Change::value,
+                Change::new
+        );
+    }
+
+    public static final Type<ProgressDeltaPacket> TYPE = new Type<>(ModConstants.id("progress_delta"));
+
+    public static final StreamCodec<ByteBuf, ProgressDeltaPacket> STREAM_CODEC = StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            ProgressDeltaPacket::sequence,
+            Change.STREAM_CODEC.apply(ByteBufCodecs.collection(ArrayList::new)),
+            ProgressDeltaPacket::changes,
+            ProgressDeltaPacket::new
+    );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
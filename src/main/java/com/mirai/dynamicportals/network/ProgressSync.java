@@ -0,0 +1,112 @@
+package com.mirai.dynamicportals.network;
+
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.data.ModAttachments;
+import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.data.ProgressListener;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.PacketDistributor;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sends progress to clients: a full {@link SyncProgressPacket} on login, dimension change, respawn and reset,
+ * and a {@link ProgressDeltaPacket} of only the changes in between.
+ * <p>
+ * Changes are collected from the player's {@link PlayerProgressData} as they are made. Each delta carries
+ * the next sequence number, and a client that sees a gap asks for a full snapshot instead.
+ * <p>
+ * Snapshots are numbered against the requirements the client has, so whenever the requirements changed
+ * since the player was last sent them, a {@link SyncRequirementsPacket} goes out first.
+ * Only used from the server thread.
+ */
+public final class ProgressSync {
+    private static final Map<UUID, Tracker> TRACKERS = new HashMap<>();
+
+    private ProgressSync() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Sends the current requirements, as after a datapack sync
+     */
+    public static void sendRequirements(ServerPlayer player) {
+        Tracker tracker = TRACKERS.computeIfAbsent(player.getUUID(), uuid -> new Tracker());
+        RequirementIndex index = PortalRequirementRegistry.getInstance().getIndex();
+        PacketDistributor.sendToPlayer(player, SyncRequirementsPacket.fromIndex(index));
+        tracker.requirementsTable = ProgressWireTable.forIndex(index);
+    }
+
+    // Requirements registered or removed through the API change the table without a datapack sync
+    private static void sendRequirementsIfChanged(ServerPlayer player, Tracker tracker) {
+        ProgressWireTable table = ProgressWireTable.forIndex(PortalRequirementRegistry.getInstance().getIndex());
+        if (tracker.requirementsTable == null || tracker.requirementsTable.hash() != table.hash()) {
+            sendRequirements(player);
+        }
+    }
+
+    /**
+     * Sends the player's whole progress, dropping any changes not sent yet
+     */
+    public static void sendFull(ServerPlayer player) {
+        PlayerProgressData progressData = player.getData(ModAttachments.PLAYER_PROGRESS);
+        Tracker tracker = TRACKERS.computeIfAbsent(player.getUUID(), uuid -> new Tracker());
+        sendRequirementsIfChanged(player, tracker);
+        // A respawned player has a new data object
+        progressData.setSyncListener(tracker);
+        tracker.pending.clear();
+        PacketDistributor.sendToPlayer(player, SyncProgressPacket.fromProgressData(progressData, tracker.sequence));
+    }
+
+    /**
+     * Sends the changes made since the last packet, if any
+     */
+    public static void sendChanges(ServerPlayer player) {
+        Tracker tracker = TRACKERS.get(player.getUUID());
+        if (tracker == null) {
+            sendFull(player);
+            return;
+        }
+        if (tracker.pending.isEmpty()) {
+            return;
+        }
+        sendRequirementsIfChanged(player, tracker);
+        tracker.sequence++;
+        PacketDistributor.sendToPlayer(player, new ProgressDeltaPacket(tracker.sequence, List.copyOf(tracker.pending)));
+        tracker.pending.clear();
+    }
+
+    public static void stop(ServerPlayer player) {
+        if (TRACKERS.remove(player.getUUID()) != null) {
+            player.getData(ModAttachments.PLAYER_PROGRESS).setSyncListener(null);
+        }
+    }
+
+    public static void handleResyncRequest(final RequestProgressSyncPacket packet, final IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (context.player() instanceof ServerPlayer player) {
+                sendFull(player);
+            }
+        });
+    }
+
+    private static final class Tracker implements ProgressListener {
+        private final List<ProgressDeltaPacket.Change> pending = new ArrayList<>();
+        // Sequence of the last delta sent
+        private int sequence;
+        // Table of the requirements last sent, null before the first
+        private ProgressWireTable requirementsTable;
+
+        @Override
+        public void onProgressChanged(long seq, int op, String id, int value) {
+            pending.add(new ProgressDeltaPacket.Change(op, Optional.ofNullable(id), value));
+        }
+    }
+}
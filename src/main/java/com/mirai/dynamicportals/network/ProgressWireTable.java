@@ -0,0 +1,148 @@
+package com.mirai.dynamicportals.network;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.RequirementExpression;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Numbers every target of a set of requirements, so progress on them can go over the wire as bit positions.
+ * <p>
+ * Server and client build the table from the same requirement list, the one in {@link SyncRequirementsPacket}:
+ * requirements sorted by dimension, then each one's advancement, mobs, bosses, items, tags and condition
+ * targets in declaration order. Entries are entity types, items, tag keys and advancement ids. The hash
+ * identifies the numbering, so a packet encoded against another table is detected rather than misread.
+ */
+public final class ProgressWireTable {
+    public static final ProgressWireTable EMPTY = new ProgressWireTable(List.of());
+
+    // The table the client got with the last requirements sync
+    private static volatile ProgressWireTable received = EMPTY;
+    // The server's table for its current index
+    private static volatile Cached cached = new Cached(null, EMPTY);
+
+    private final List<Object> entries;
+    private final Object2IntOpenHashMap<Object> positions;
+    private final long hash;
+
+    private record Cached(RequirementIndex index, ProgressWireTable table) {
+    }
+
+    private ProgressWireTable(List<Object> entries) {
+        this.entries = List.copyOf(entries);
+        this.positions = new Object2IntOpenHashMap<>(entries.size());
+        this.positions.defaultReturnValue(-1);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (int position = 0; position < entries.size(); position++) {
+            positions.put(entries.get(position), position);
+            hasher.putString(describe(entries.get(position)), StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        this.hash = hasher.hash().asLong();
+    }
+
+    public static ProgressWireTable of(Collection<PortalRequirement> requirements) {
+        List<PortalRequirement> sorted = new ArrayList<>(requirements);
+        sorted.sort(Comparator.comparing(requirement -> requirement.getDimension().toString()));
+
+        List<Object> entries = new ArrayList<>();
+        Set<Object> seen = new HashSet<>();
+        for (PortalRequirement requirement : sorted) {
+            if (requirement.getRequiredAdvancement() != null) {
+                add(entries, seen, requirement.getRequiredAdvancement());
+            }
+            requirement.getRequiredMobs().forEach(entityType -> add(entries, seen, entityType));
+            requirement.getRequiredBosses().forEach(entityType -> add(entries, seen, entityType));
+            requirement.getRequiredItems().forEach(item -> add(entries, seen, item));
+            requirement.getRequiredMobTags().forEach(tag -> add(entries, seen, tag));
+            requirement.getRequiredItemTags().forEach(tag -> add(entries, seen, tag));
+            if (requirement.getCondition() != null) {
+                addTargets(entries, seen, requirement.getCondition());
+            }
+        }
+        return new ProgressWireTable(entries);
+    }
+
+    /**
+     * @return the table for the requirements the server syncs from this index, built once per index
+     */
+    public static ProgressWireTable forIndex(RequirementIndex index) {
+        Cached current = cached;
+        if (current.index() != index) {
+            current = new Cached(index, of(index.requirementsByDimension().values()));
+            cached = current;
+        }
+        return current.table();
+    }
+
+    public static ProgressWireTable received() {
+        return received;
+    }
+
+    public static void setReceived(ProgressWireTable table) {
+        received = table;
+    }
+
+    /**
+     * @return the position of an entity type, item, tag key or advancement id, or -1 if not in the table
+     */
+    public int positionOf(Object target) {
+        return positions.getInt(target);
+    }
+
+    /**
+     * @return the entry at a position, or null past the end
+     */
+    public Object entryAt(int position) {
+        return position >= 0 && position < entries.size() ? entries.get(position) : null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    private static void addTargets(List<Object> entries, Set<Object> seen, RequirementExpression expression) {
+        switch (expression) {
+            case RequirementExpression.Group group -> group.of().forEach(child -> addTargets(entries, seen, child));
+            case RequirementExpression.Kill kill -> add(entries, seen, kill.entityType());
+            case RequirementExpression.KillTag killTag -> add(entries, seen, killTag.tag());
+            case RequirementExpression.Obtain obtain -> add(entries, seen, obtain.item());
+            case RequirementExpression.ObtainTag obtainTag -> add(entries, seen, obtainTag.tag());
+        }
+    }
+
+    private static void add(List<Object> entries, Set<Object> seen, Object entry) {
+        if (seen.add(entry)) {
+            entries.add(entry);
+        }
+    }
+
+    // Entity types and items share ids, so every kind gets its own prefix
+    private static String describe(Object entry) {
+        return switch (entry) {
+            case EntityType<?> entityType -> "entity:" + BuiltInRegistries.ENTITY_TYPE.getKey(entityType);
+            case Item item -> "item:" + BuiltInRegistries.ITEM.getKey(item);
+            case TagKey<?> tag -> "tag:" + tag.registry().location() + "#" + tag.location();
+            case ResourceLocation advancement -> "advancement:" + advancement;
+            default -> throw new IllegalArgumentException("Not a requirement target: " + entry);
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.mirai.dynamicportals.network;
+
+import com.mirai.dynamicportals.util.ModConstants;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+
+/**
+ * Sent by a client that missed a {@link ProgressDeltaPacket}, asking for a full {@link SyncProgressPacket}
+ */
+public record RequestProgressSyncPacket() implements CustomPacketPayload {
+    public static final RequestProgressSyncPacket INSTANCE = new RequestProgressSyncPacket();
+
+    public static final Type<RequestProgressSyncPacket> TYPE = new Type<>(ModConstants.id("request_progress_sync"));
+
+    public static final StreamCodec<ByteBuf, RequestProgressSyncPacket> STREAM_CODEC = StreamCodec.unit(INSTANCE);
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -1,114 +1,201 @@
 package com.mirai.dynamicportals.network;
 
+import com.mirai.dynamicportals.api.PortalRequirementRegistry;
 import com.mirai.dynamicportals.data.PlayerProgressData;
+import com.mirai.dynamicportals.util.BitSets;
 import com.mirai.dynamicportals.util.ModConstants;
 import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Full snapshot of a player's progress.
+ * <p>
+ * On the wire, targets listed in the {@link ProgressWireTable} are bits and counts by table position.
+ * Anything outside the table, such as progress kept from requirements since removed, falls back to
+ * registry network ids, or to ids for advancements and tags.
+ * @param sequence Sequence number of the last {@link ProgressDeltaPacket} folded into this snapshot
+ * @param table    Table the targets are numbered against, null if the packet was encoded against a
+ *                 different one than the client has, in which case only the fallback part was read
+ */
 public record SyncProgressPacket(
-        Map<EntityType<?>, Boolean> killedMobs,
+        int sequence,
+        ProgressWireTable table,
+        Set<EntityType<?>> killedMobs,
+        Map<EntityType<?>, Integer> killCounts,
         Set<Item> obtainedItems,
         int deathCount,
-        Set<ResourceLocation> unlockedAchievements
+        Set<ResourceLocation> unlockedAchievements,
+        TagProgress tagProgress
 ) implements CustomPacketPayload {
 
-    public static final Type<SyncProgressPacket> TYPE = new Type<>(ModConstants.id("sync_progress"));
+    /**
+     * Progress on tag entries, keyed by tag id
+     * @param mobTagKills Kills so far per mob tag entry, the threshold once it is done
+     * @param itemTags    Item tag entries done
+     */
+    public record TagProgress(Map<ResourceLocation, Integer> mobTagKills, Set<ResourceLocation> itemTags) {
+        public static final StreamCodec<ByteBuf, TagProgress> STREAM_CODEC = StreamCodec.composite(
+                ByteBufCodecs.map(HashMap::new, ResourceLocation.STREAM_CODEC, ByteBufCodecs.VAR_INT),
+                TagProgress::mobTagKills,
+                ResourceLocation.STREAM_CODEC.apply(ByteBufCodecs.collection(HashSet::new)),
+                TagProgress::itemTags,
+                TagProgress::new
+        );
+    }
 
-    public static final StreamCodec<ByteBuf, SyncProgressPacket> STREAM_CODEC = StreamCodec.composite(
-            new StreamCodec<>() {
-                @Override
-                public Map<EntityType<?>, Boolean> decode(ByteBuf buffer) {
-                    int size = ByteBufCodecs.VAR_INT.decode(buffer);
-                    Map<EntityType<?>, Boolean> map = new HashMap<>();
-                    for (int i = 0; i < size; i++) {
-                        ResourceLocation id = ResourceLocation.STREAM_CODEC.decode(buffer);
-                        boolean killed = ByteBufCodecs.BOOL.decode(buffer);
-                        EntityType<?> entityType = BuiltInRegistries.ENTITY_TYPE.get(id);
-                        if (entityType != null) {
-                            map.put(entityType, killed);
-                        }
-                    }
-                    return map;
-                }
+    public static final Type<SyncProgressPacket> TYPE = new Type<>(ModConstants.id("sync_progress"));
 
-                @Override
-                public void encode(ByteBuf buffer, Map<EntityType<?>, Boolean> map) {
-                    ByteBufCodecs.VAR_INT.encode(buffer, map.size());
-                    for (Map.Entry<EntityType<?>, Boolean> entry : map.entrySet()) {
-                        ResourceLocation id = BuiltInRegistries.ENTITY_TYPE.getKey(entry.getKey());
-                        ResourceLocation.STREAM_CODEC.encode(buffer, id);
-                        ByteBufCodecs.BOOL.encode(buffer, entry.getValue());
-                    }
+    private static final StreamCodec<ByteBuf, long[]> WORDS = StreamCodec.of(
+            (buffer, words) -> {
+                ByteBufCodecs.VAR_INT.encode(buffer, words.length);
+                for (long word : words) {
+                    buffer.writeLong(word);
                 }
             },
-            SyncProgressPacket::killedMobs,
-            new StreamCodec<>() {
-                @Override
-                public Set<Item> decode(ByteBuf buffer) {
-                    int size = ByteBufCodecs.VAR_INT.decode(buffer);
-                    Set<Item> set = new HashSet<>();
-                    for (int i = 0; i < size; i++) {
-                        ResourceLocation id = ResourceLocation.STREAM_CODEC.decode(buffer);
-                        Item item = BuiltInRegistries.ITEM.get(id);
-                        if (item != null) {
-                            set.add(item);
-                        }
-                    }
-                    return set;
-                }
-
-                @Override
-                public void encode(ByteBuf buffer, Set<Item> set) {
-                    ByteBufCodecs.VAR_INT.encode(buffer, set.size());
-                    for (Item item : set) {
-                        ResourceLocation id = BuiltInRegistries.ITEM.getKey(item);
-                        ResourceLocation.STREAM_CODEC.encode(buffer, id);
-                    }
+            buffer -> {
+                int length = ByteBufCodecs.VAR_INT.decode(buffer);
+                if (length < 0 || length > buffer.readableBytes() / Long.BYTES) {
+                    throw new DecoderException("Bitset of " + length + " words is longer than the packet");
                 }
-            },
-            SyncProgressPacket::obtainedItems,
-            ByteBufCodecs.VAR_INT,
-            SyncProgressPacket::deathCount,
-            new StreamCodec<>() {
-                @Override
-                public Set<ResourceLocation> decode(ByteBuf buffer) {
-                    int size = ByteBufCodecs.VAR_INT.decode(buffer);
-                    Set<ResourceLocation> set = new HashSet<>();
-                    for (int i = 0; i < size; i++) {
-                        set.add(ResourceLocation.STREAM_CODEC.decode(buffer));
-                    }
-                    return set;
+                long[] words = new long[length];
+                for (int i = 0; i < length; i++) {
+                    words[i] = buffer.readLong();
                 }
+                return words;
+            }
+    );
+    private static final StreamCodec<ByteBuf, Map<Integer, Integer>> POSITION_COUNTS =
+            ByteBufCodecs.map(HashMap::new, ByteBufCodecs.VAR_INT, ByteBufCodecs.VAR_INT);
+    private static final StreamCodec<ByteBuf, EntityType<?>> ENTITY_ID = ByteBufCodecs.idMapper(BuiltInRegistries.ENTITY_TYPE);
+    private static final StreamCodec<ByteBuf, Set<EntityType<?>>> ENTITY_IDS = ENTITY_ID.apply(ByteBufCodecs.collection(HashSet::new));
+    private static final StreamCodec<ByteBuf, Map<EntityType<?>, Integer>> ENTITY_COUNTS =
+            ByteBufCodecs.map(HashMap::new, ENTITY_ID, ByteBufCodecs.VAR_INT);
+    private static final StreamCodec<ByteBuf, Set<Item>> ITEM_IDS =
+            ByteBufCodecs.idMapper(BuiltInRegistries.ITEM).apply(ByteBufCodecs.collection(HashSet::new));
+    private static final StreamCodec<ByteBuf, Set<ResourceLocation>> IDS = ResourceLocation.STREAM_CODEC.apply(ByteBufCodecs.collection(HashSet::new));
+
+    public static final StreamCodec<ByteBuf, SyncProgressPacket> STREAM_CODEC = StreamCodec.ofMember(SyncProgressPacket::write, SyncProgressPacket::read);
+
+    private void write(ByteBuf buffer) {
+        // Done targets by position: mobs, items, item tags and advancements
+        BitSet completed = new BitSet(table.size());
+        Set<EntityType<?>> otherMobs = splitCompleted(killedMobs, Function.identity(), completed);
+        Set<Item> otherItems = splitCompleted(obtainedItems, Function.identity(), completed);
+        Set<ResourceLocation> otherAchievements = splitCompleted(unlockedAchievements, Function.identity(), completed);
+        Set<ResourceLocation> otherItemTags = splitCompleted(tagProgress.itemTags(), tag -> TagKey.create(Registries.ITEM, tag), completed);
+
+        // Kill counts by position: mobs still in progress and mob tags
+        Map<Integer, Integer> counts = new HashMap<>();
+        Map<EntityType<?>, Integer> otherCounts = splitCounts(killCounts, Function.identity(), counts);
+        Map<ResourceLocation, Integer> otherTagCounts = splitCounts(tagProgress.mobTagKills(), tag -> TagKey.create(Registries.ENTITY_TYPE, tag), counts);
 
-                @Override
-                public void encode(ByteBuf buffer, Set<ResourceLocation> set) {
-                    ByteBufCodecs.VAR_INT.encode(buffer, set.size());
-                    for (ResourceLocation id : set) {
-                        ResourceLocation.STREAM_CODEC.encode(buffer, id);
-                    }
+        ByteBufCodecs.VAR_INT.encode(buffer, sequence);
+        buffer.writeLong(table.hash());
+        WORDS.encode(buffer, completed.toLongArray());
+        POSITION_COUNTS.encode(buffer, counts);
+        ENTITY_IDS.encode(buffer, otherMobs);
+        ENTITY_COUNTS.encode(buffer, otherCounts);
+        ITEM_IDS.encode(buffer, otherItems);
+        ByteBufCodecs.VAR_INT.encode(buffer, deathCount);
+        IDS.encode(buffer, otherAchievements);
+        TagProgress.STREAM_CODEC.encode(buffer, new TagProgress(otherTagCounts, otherItemTags));
+    }
+
+    private <T> Set<T> splitCompleted(Collection<T> targets, Function<T, ?> entry, BitSet completed) {
+        Set<T> others = new HashSet<>();
+        for (T target : targets) {
+            int position = table.positionOf(entry.apply(target));
+            if (position >= 0) {
+                completed.set(position);
+            } else {
+                others.add(target);
+            }
+        }
+        return others;
+    }
+
+    private <T> Map<T, Integer> splitCounts(Map<T, Integer> targets, Function<T, ?> entry, Map<Integer, Integer> counts) {
+        Map<T, Integer> others = new HashMap<>();
+        targets.forEach((target, count) -> {
+            int position = table.positionOf(entry.apply(target));
+            if (position >= 0) {
+                counts.put(position, count);
+            } else {
+                others.put(target, count);
+            }
+        });
+        return others;
+    }
+
+    private static SyncProgressPacket read(ByteBuf buffer) {
+        int sequence = ByteBufCodecs.VAR_INT.decode(buffer);
+        long hash = buffer.readLong();
+        long[] completed = WORDS.decode(buffer);
+        Map<Integer, Integer> counts = POSITION_COUNTS.decode(buffer);
+        Set<EntityType<?>> killedMobs = ENTITY_IDS.decode(buffer);
+        Map<EntityType<?>, Integer> killCounts = ENTITY_COUNTS.decode(buffer);
+        Set<Item> obtainedItems = ITEM_IDS.decode(buffer);
+        int deathCount = ByteBufCodecs.VAR_INT.decode(buffer);
+        Set<ResourceLocation> unlockedAchievements = IDS.decode(buffer);
+        TagProgress tagProgress = TagProgress.STREAM_CODEC.decode(buffer);
+
+        // Positions only mean something against the table they were written with
+        ProgressWireTable table = ProgressWireTable.received();
+        if (table.hash() != hash) {
+            return new SyncProgressPacket(sequence, null, killedMobs, killCounts, obtainedItems, deathCount, unlockedAchievements, tagProgress);
+        }
+        for (int position = BitSets.nextSetBit(completed, 0); position >= 0; position = BitSets.nextSetBit(completed, position + 1)) {
+            switch (table.entryAt(position)) {
+                case EntityType<?> entityType -> killedMobs.add(entityType);
+                case Item item -> obtainedItems.add(item);
+                case TagKey<?> tag -> tagProgress.itemTags().add(tag.location());
+                case ResourceLocation advancement -> unlockedAchievements.add(advancement);
+                case null, default -> {
                 }
-            },
-            SyncProgressPacket::unlockedAchievements,
-            SyncProgressPacket::new
-    );
+            }
+        }
+        counts.forEach((position, count) -> {
+            switch (table.entryAt(position)) {
+                case EntityType<?> entityType -> killCounts.put(entityType, count);
+                case TagKey<?> tag -> tagProgress.mobTagKills().put(tag.location(), count);
+                case null, default -> {
+                }
+            }
+        });
+        return new SyncProgressPacket(sequence, table, killedMobs, killCounts, obtainedItems, deathCount, unlockedAchievements, tagProgress);
+    }
 
-    public static SyncProgressPacket fromProgressData(PlayerProgressData data) {
+    public static SyncProgressPacket fromProgressData(PlayerProgressData data, int sequence) {
         return new SyncProgressPacket(
-                new HashMap<>(data.getKilledMobs()),
+                sequence,
+                ProgressWireTable.forIndex(PortalRequirementRegistry.getInstance().getIndex()),
+                new HashSet<>(data.getKilledMobs().keySet()),
+                new HashMap<>(data.getPartialKillCounts()),
                 new HashSet<>(data.getObtainedItems()),
                 data.getDeathCount(),
-                new HashSet<>(data.getUnlockedAchievements())
+                new HashSet<>(data.getUnlockedAchievements()),
+                new TagProgress(
+                        data.getMobTagKillCounts().entrySet().stream().collect(Collectors.toMap(entry -> entry.getKey().location(), Map.Entry::getValue)),
+                        data.getObtainedItemTags().stream().map(TagKey::location).collect(Collectors.toSet())
+                )
         );
     }
 
@@ -0,0 +1,39 @@
+package com.mirai.dynamicportals.network;
+
+import com.mirai.dynamicportals.api.PortalRequirement;
+import com.mirai.dynamicportals.api.RequirementIndex;
+import com.mirai.dynamicportals.util.ModConstants;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+
+import java.util.List;
+
+/**
+ * Sends the server's portal requirements to clients, so the HUD and kill thresholds match the loaded datapacks.
+ */
+public record SyncRequirementsPacket(
+        List<PortalRequirement> requirements,
+        long contentHash
+) implements CustomPacketPayload {
+
+    public static final Type<SyncRequirementsPacket> TYPE = new Type<>(ModConstants.id("sync_requirements"));
+
+    public static final StreamCodec<ByteBuf, SyncRequirementsPacket> STREAM_CODEC = StreamCodec.composite(
+            PortalRequirement.STREAM_CODEC.apply(ByteBufCodecs.list()),
+            SyncRequirementsPacket::requirements,
+            ByteBufCodecs.VAR_LONG,
+            SyncRequirementsPacket::contentHash,
+            SyncRequirementsPacket::new
+    );
+
+    public static SyncRequirementsPacket fromIndex(RequirementIndex index) {
+        return new SyncRequirementsPacket(List.copyOf(index.requirementsByDimension().values()), index.contentHash());
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
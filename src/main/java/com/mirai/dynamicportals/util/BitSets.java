@@ -0,0 +1,114 @@
+package com.mirai.dynamicportals.util;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for growable bitsets stored as plain {@code long[]} words.
+ */
+public final class BitSets {
+    public static final long[] EMPTY = new long[0];
+
+    private BitSets() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean get(long[] bits, int index) {
+        int word = index >>> 6;
+        return index >= 0 && word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets a bit, growing the array when needed.
+     * @return the array holding the bit, which may be a new copy
+     */
+    public static long[] set(long[] bits, int index) {
+        if (index < 0) {
+            return bits;
+        }
+        int word = index >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, word + 1);
+        }
+        bits[word] |= 1L << index;
+        return bits;
+    }
+
+    public static void clear(long[] bits, int index) {
+        int word = index >>> 6;
+        if (index >= 0 && word < bits.length) {
+            bits[word] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Clears every bit of {@code bits} that is set in {@code mask}, in place.
+     */
+    public static void andNot(long[] bits, long[] mask) {
+        for (int i = 0, n = Math.min(bits.length, mask.length); i < n; i++) {
+            bits[i] &= ~mask[i];
+        }
+    }
+
+    /**
+     * @return a new array with the bits of both arrays
+     */
+    public static long[] or(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            result[i] |= b[i];
+        }
+        return result;
+    }
+
+    /**
+     * @return true if every bit set in {@code subset} is also set in {@code bits}
+     */
+    public static boolean containsAll(long[] bits, long[] subset) {
+        for (int i = 0; i < subset.length; i++) {
+            long word = i < bits.length ? bits[i] : 0L;
+            if ((subset[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of bits set in both arrays
+     */
+    public static int intersectionCount(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /**
+     * @return the index of the first set bit at or after {@code from}, or -1 if there is none
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (from < 0 || word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+}
@@ -8,6 +8,9 @@ public class ModConstants {
     // Death penalty configuration
     public static final int DEATH_THRESHOLD = 10;
     public static final int ASSIST_TIME_WINDOW_SECONDS = 5;
+    public static final int ASSIST_TIME_WINDOW_TICKS = ASSIST_TIME_WINDOW_SECONDS * 20;
+    // At most one portal denial message per player in this many ticks
+    public static final int PORTAL_DENIAL_COOLDOWN_TICKS = 60;
 
     // Dimension identifiers
     public static final ResourceLocation NETHER_DIMENSION = ResourceLocation.withDefaultNamespace("the_nether");
@@ -18,21 +21,24 @@ public class ModConstants {
     public static final ResourceLocation END_ACCESS_ADVANCEMENT = ResourceLocation.fromNamespaceAndPath(MOD_ID, "end_access");
 
     // Translation keys - Messages
-    public static final String MSG_PORTAL_BLOCKED_NETHER = "message.dynamicportals.portal_blocked.nether";
-    public static final String MSG_PORTAL_BLOCKED_END = "message.dynamicportals.portal_blocked.end";
+    // Suffixed with the dimension's language key, e.g. message.dynamicportals.portal_blocked.minecraft.the_nether
+    public static final String MSG_PORTAL_BLOCKED = "message.dynamicportals.portal_blocked";
     public static final String MSG_PROGRESS_RESET = "message.dynamicportals.progress_reset";
     public static final String MSG_ACHIEVEMENT_UNLOCKED = "message.dynamicportals.achievement_unlocked";
 
     // Translation keys - HUD
     public static final String HUD_TITLE = "hud.dynamicportals.title";
     public static final String HUD_DEATHS = "hud.dynamicportals.deaths";
-    public static final String HUD_PROGRESS_OVERWORLD = "hud.dynamicportals.progress.overworld";
-    public static final String HUD_PROGRESS_NETHER = "hud.dynamicportals.progress.nether";
-    public static final String HUD_PHASE_OVERWORLD = "hud.dynamicportals.phase.overworld";
-    public static final String HUD_PHASE_NETHER = "hud.dynamicportals.phase.nether";
+    public static final String HUD_PROGRESS = "hud.dynamicportals.progress";
+    // Suffixed with the dimension's language key, e.g. hud.dynamicportals.phase.minecraft.the_nether
+    public static final String HUD_PHASE = "hud.dynamicportals.phase";
     public static final String HUD_REQUIRED_MOBS = "hud.dynamicportals.required_mobs";
     public static final String HUD_REQUIRED_ITEMS = "hud.dynamicportals.required_items";
     public static final String HUD_REQUIRED_BOSSES = "hud.dynamicportals.required_bosses";
+    public static final String HUD_REQUIRED_CONDITION = "hud.dynamicportals.required_condition";
+    public static final String HUD_CONDITION_ALL = "hud.dynamicportals.condition.all";
+    public static final String HUD_CONDITION_ANY = "hud.dynamicportals.condition.any";
+    public static final String HUD_CONDITION_AT_LEAST = "hud.dynamicportals.condition.at_least";
     public static final String HUD_COMPLETED = "hud.dynamicportals.completed";
     public static final String HUD_INCOMPLETE = "hud.dynamicportals.incomplete";
 
@@ -52,9 +58,27 @@ public class ModConstants {
     public static final String NBT_DEATH_COUNT = "DeathCount";
     public static final String NBT_UNLOCKED_ACHIEVEMENTS = "UnlockedAchievements";
     public static final String NBT_DATA_VERSION = "DataVersion";
+    public static final String NBT_PALETTE = "Palette";
+    public static final String NBT_PALETTE_KINDS = "PaletteKinds";
+    public static final String NBT_KILL_COUNTS = "KillCounts";
+    public static final String NBT_JOURNAL_SEQ = "JournalSeq";
+
+    // Progress journal, enabled with -Ddynamicportals.progressJournal=true
+    public static final String PROGRESS_JOURNAL_PROPERTY = "dynamicportals.progressJournal";
+    public static final String PROGRESS_JOURNAL_FILE = "progress.journal";
+
+    // Progress storage backend, -Ddynamicportals.progressStore=file keeps one file per player outside the
+    // player .dat files; -Ddynamicportals.progressStoreDir points it at a directory shared between worlds
+    public static final String PROGRESS_STORE_PROPERTY = "dynamicportals.progressStore";
+    public static final String PROGRESS_STORE_DIR_PROPERTY = "dynamicportals.progressStoreDir";
+    public static final String PROGRESS_STORE_FILE = "file";
+    public static final String PROGRESS_STORE_FOLDER = "players";
 
     // Data version for migrations
-    public static final int CURRENT_DATA_VERSION = 1;
+    // v1: one compound entry per killed mob, string lists for items and achievements
+    // v2: single id palette with packed 2-bit kinds (mob, item, achievement, mob in progress)
+    //     plus one KillCounts entry per mob in progress
+    public static final int CURRENT_DATA_VERSION = 2;
 
     private ModConstants() {
         throw new IllegalStateException("Utility class");